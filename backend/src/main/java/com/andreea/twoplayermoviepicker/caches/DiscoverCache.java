@@ -0,0 +1,92 @@
+package com.andreea.twoplayermoviepicker.caches;
+
+import com.andreea.twoplayermoviepicker.response_models.CacheStatsResponse;
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import info.movito.themoviedbapi.model.core.MovieResultsPage;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiFunction;
+
+import static com.andreea.twoplayermoviepicker.utils.ConfigVariables.DISCOVER_PAGE_CACHE_EXPIRE_AFTER;
+import static com.andreea.twoplayermoviepicker.utils.ConfigVariables.DISCOVER_PAGE_CACHE_MAX_SIZE;
+import static com.andreea.twoplayermoviepicker.utils.ConfigVariables.TOTAL_PAGES_CACHE_EXPIRE_AFTER;
+import static com.andreea.twoplayermoviepicker.utils.ConfigVariables.TOTAL_PAGES_CACHE_MAX_SIZE;
+
+/**
+ * Caches discover result pages per page and filter combination, along with the longer-lived
+ * number of total pages per filter combination used to pick a page that is in range on the first try.
+ */
+public class DiscoverCache {
+    private static final String PAGE_CACHE_NAME = "discover-pages";
+    private static final String TOTAL_PAGES_CACHE_NAME = "discover-total-pages";
+
+    private final AsyncLoadingCache<PageKey, MovieResultsPage> pageCache;
+    private final Cache<DiscoverFilter, Integer> totalPagesCache;
+    private final LongAdder coalescedLoadCount = new LongAdder();
+
+    public DiscoverCache(BiFunction<Integer, DiscoverFilter, CompletableFuture<MovieResultsPage>> loader,
+                         Executor executor) {
+        pageCache = Caffeine.newBuilder()
+                .maximumSize(DISCOVER_PAGE_CACHE_MAX_SIZE)
+                .expireAfterWrite(DISCOVER_PAGE_CACHE_EXPIRE_AFTER)
+                .executor(executor)
+                .recordStats()
+                .buildAsync((key, loaderExecutor) -> loader.apply(key.page(), key.filter()));
+        totalPagesCache = Caffeine.newBuilder()
+                .maximumSize(TOTAL_PAGES_CACHE_MAX_SIZE)
+                .expireAfterWrite(TOTAL_PAGES_CACHE_EXPIRE_AFTER)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Returns a discover page for the given filters, loading it on a miss, and records its total number of pages.
+     * Concurrent misses for the same page share a single load; such gets are counted as coalesced loads.
+     *
+     * @param page   the discover page number
+     * @param filter the filter combination of the discover request
+     * @return a future of the discover results page
+     */
+    public CompletableFuture<MovieResultsPage> getPage(Integer page, DiscoverFilter filter) {
+        PageKey key = new PageKey(page, filter);
+        // Read through the map view, which does not count towards the hit and miss statistics
+        CompletableFuture<MovieResultsPage> loading = pageCache.asMap().get(key);
+        if (loading != null && !loading.isDone()) {
+            coalescedLoadCount.increment();
+        }
+        return pageCache.get(key)
+                .thenApply(movieResultsPage -> {
+                    Integer totalPages = movieResultsPage != null ? movieResultsPage.getTotalPages() : null;
+                    if (totalPages != null) {
+                        totalPagesCache.put(filter, totalPages);
+                    }
+                    return movieResultsPage;
+                });
+    }
+
+    /**
+     * Returns the last known number of discover pages for the given filters.
+     *
+     * @param filter the filter combination of the discover request
+     * @return the number of total pages, or null if no page was fetched yet for these filters
+     */
+    public Integer getTotalPages(DiscoverFilter filter) {
+        return totalPagesCache.getIfPresent(filter);
+    }
+
+    public List<CacheStatsResponse> getStats() {
+        return List.of(
+                CacheStatsResponse.fromCacheStats(PAGE_CACHE_NAME, pageCache.synchronous().estimatedSize(),
+                        pageCache.synchronous().stats(), coalescedLoadCount.sum()),
+                CacheStatsResponse.fromCacheStats(TOTAL_PAGES_CACHE_NAME, totalPagesCache.estimatedSize(),
+                        totalPagesCache.stats(), null));
+    }
+
+    private record PageKey(Integer page, DiscoverFilter filter) {
+    }
+}
@@ -0,0 +1,37 @@
+package com.andreea.twoplayermoviepicker.caches;
+
+import com.andreea.twoplayermoviepicker.request_models.RoomRequest;
+import info.movito.themoviedbapi.tools.sortby.DiscoverMovieSortBy;
+
+import java.util.List;
+
+import static com.andreea.twoplayermoviepicker.utils.ConfigVariables.DISCOVER_SORT_BY;
+
+/**
+ * The filter combination of a discover request. Genre and provider lists are sorted so that
+ * requests with the same filters in a different order share the same cache entries.
+ */
+public record DiscoverFilter(String language,
+                             List<Integer> genres,
+                             String watchRegion,
+                             List<Integer> watchProviders,
+                             DiscoverMovieSortBy sortBy) {
+    public static DiscoverFilter fromRoomRequest(RoomRequest request) {
+        return new DiscoverFilter(
+                request.language(),
+                sortedOrEmpty(request.genres()),
+                request.watchRegion() != null && !request.watchRegion().isBlank() ? request.watchRegion() : null,
+                sortedOrEmpty(request.watchProviders()),
+                DISCOVER_SORT_BY);
+    }
+
+    private static List<Integer> sortedOrEmpty(List<Integer> ids) {
+        if (ids == null) {
+            return List.of();
+        }
+        return ids.stream()
+                .sorted()
+                .distinct()
+                .toList();
+    }
+}
@@ -0,0 +1,32 @@
+package com.andreea.twoplayermoviepicker.caches;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * In-memory state of a player of a {@link HotRoom}: their slot in the room, which is their bit in the room's
+ * like masks, their position in the room's seed sequence and the highest sequence number of their applied swipes.
+ */
+@Getter
+public class HotPlayer {
+    private final Integer id;
+    private final String playerSessionId;
+    private final int slot;
+
+    @Setter
+    private int seedIndex;
+    @Setter
+    private long lastSwipeSequence;
+
+    public HotPlayer(Integer id, String playerSessionId, int slot, int seedIndex, long lastSwipeSequence) {
+        this.id = id;
+        this.playerSessionId = playerSessionId;
+        this.slot = slot;
+        this.seedIndex = seedIndex;
+        this.lastSwipeSequence = lastSwipeSequence;
+    }
+
+    int getLikeBit() {
+        return 1 << slot;
+    }
+}
@@ -0,0 +1,268 @@
+package com.andreea.twoplayermoviepicker.caches;
+
+import lombok.Getter;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
+
+import static com.andreea.twoplayermoviepicker.utils.UtilityMethods.intToSeed;
+import static com.andreea.twoplayermoviepicker.utils.UtilityMethods.seedToInt;
+
+/**
+ * In-memory state of an active room: its filters, its seed sequence and the progress and likes of its players.
+ * Methods must be called through {@link RoomRegistry#withRoom}, and every change is handed to
+ * {@link RoomWriteBehind} to be persisted asynchronously. Every change also marks the session as active, so a room
+ * whose players keep swiping or moving through decks is not expired.
+ * <p>
+ * Likes take no room-wide lock: each liked movie keeps a mask of the players who liked it, updated atomically,
+ * so of two simultaneous likes of the same movie exactly one sees the other and reports the match.
+ * <p>
+ * The common likes form an append-only list whose length is its version, so a client holding version N reads
+ * the matches it has not seen yet as the list from position N. Versions are only meaningful within a generation,
+ * drawn anew whenever the room is loaded: a common like lost with a failed write leaves its version to be handed
+ * out again to another movie after the reload, so a client holding another generation reads the whole list.
+ */
+public class HotRoom {
+    @Getter
+    private final Integer sessionId;
+    @Getter
+    private final String roomCode;
+    @Getter
+    private final Set<Integer> genreIds;
+    @Getter
+    private final String watchRegion;
+    @Getter
+    private final Set<Integer> watchProviderIds;
+
+    private final RoomWriteBehind roomWriteBehind;
+    private final Map<String, HotPlayer> players;
+    private final Map<Integer, AtomicInteger> likersByMovie;
+    private final List<Integer> commonLikes;
+    private final int commonLikesGeneration = ThreadLocalRandom.current().nextInt(Integer.MAX_VALUE);
+    private final ReadWriteLock evictionLock = new ReentrantReadWriteLock();
+    private int[] seeds;
+    private int seedCount;
+    private volatile boolean evicted;
+
+    @Getter
+    private volatile Instant lastActivity = Instant.now();
+
+    HotRoom(Integer sessionId, String roomCode, Set<Integer> genreIds, String watchRegion,
+            Set<Integer> watchProviderIds, int[] seeds, List<HotPlayer> players,
+            Map<Integer, Integer> likersByMovie, List<Integer> commonLikes, RoomWriteBehind roomWriteBehind) {
+        this.sessionId = sessionId;
+        this.roomCode = roomCode;
+        this.genreIds = genreIds;
+        this.watchRegion = watchRegion;
+        this.watchProviderIds = watchProviderIds;
+        this.seeds = seeds;
+        this.seedCount = seeds.length;
+        this.roomWriteBehind = roomWriteBehind;
+
+        Map<String, HotPlayer> playersBySessionId = new LinkedHashMap<>();
+        players.forEach(player -> playersBySessionId.put(player.getPlayerSessionId(), player));
+        this.players = Collections.unmodifiableMap(playersBySessionId);
+        this.likersByMovie = new ConcurrentHashMap<>();
+        likersByMovie.forEach((movieId, likers) -> this.likersByMovie.put(movieId, new AtomicInteger(likers)));
+        this.commonLikes = new ArrayList<>(commonLikes);
+    }
+
+    public Optional<HotPlayer> findPlayer(String playerSessionId) {
+        return Optional.ofNullable(players.get(playerSessionId));
+    }
+
+    public Set<String> getPlayerSessionIds() {
+        return players.keySet();
+    }
+
+    public CommonLikes getCommonLikes() {
+        return getCommonLikesSince(commonLikesGeneration, 0);
+    }
+
+    /**
+     * Reads the common likes added after the given version of the list. When the version belongs to another
+     * generation of the list, or is ahead of the current version, the whole list is returned as a resync.
+     *
+     * @param generation the generation of the version known to the caller, or null if the caller knows none
+     * @param version    the version of the list already known to the caller
+     * @return the current generation and version of the list and the IDs of the movies added since the given
+     * version, in the order they became common likes
+     */
+    public CommonLikes getCommonLikesSince(Integer generation, int version) {
+        synchronized (commonLikes) {
+            int currentVersion = commonLikes.size();
+            boolean resync = generation != null && generation != commonLikesGeneration || version > currentVersion;
+            int fromIndex = resync ? 0 : version;
+            List<Integer> movieIds = List.copyOf(commonLikes.subList(fromIndex, currentVersion));
+            return new CommonLikes(sessionId, roomCode, commonLikesGeneration, currentVersion, movieIds, resync);
+        }
+    }
+
+    /**
+     * Moves the player to the next seed of the room. The first player to reach the end of the sequence derives
+     * the next seed from the last one and appends it, and the other player later reads it from the sequence.
+     *
+     * @param player        the player moving to their next deck
+     * @param seedGenerator derives the next seed from the last seed of the sequence
+     * @return the seed of the player's next deck, its index in the sequence, and whether it was appended to the
+     * sequence by this call
+     */
+    public synchronized NextSeed advanceToNextSeed(HotPlayer player, UnaryOperator<String> seedGenerator) {
+        int seedIndex = player.getSeedIndex() + 1;
+        player.setSeedIndex(seedIndex);
+        roomWriteBehind.recordSeedIndex(player.getId(), seedIndex);
+        roomWriteBehind.recordSessionActivity(sessionId);
+
+        if (seedIndex < seedCount) {
+            return new NextSeed(intToSeed(seeds[seedIndex]), seedIndex, false);
+        }
+
+        String newSeed = seedGenerator.apply(intToSeed(seeds[seedCount - 1]));
+        if (seedCount == seeds.length) {
+            seeds = Arrays.copyOf(seeds, Math.max(1, seeds.length * 2));
+        }
+        seeds[seedCount] = seedToInt(newSeed);
+        roomWriteBehind.recordSeed(sessionId, seedCount, seeds[seedCount]);
+        seedCount++;
+        return new NextSeed(newSeed, seedIndex, true);
+    }
+
+    /**
+     * Adds the movie to the player's likes and checks whether another player of the room already liked it.
+     *
+     * @param player  the player liking the movie
+     * @param movieId the TMDB ID of the liked movie
+     * @return true if this like made the movie a common like of the room, false otherwise
+     * @throws IllegalArgumentException if the player already liked the movie
+     */
+    public boolean addLike(HotPlayer player, Integer movieId) {
+        LikeOutcome likeOutcome = tryAddLike(player, movieId);
+        if (likeOutcome == LikeOutcome.ALREADY_LIKED) {
+            throw new IllegalArgumentException("Movie already liked");
+        }
+        return likeOutcome == LikeOutcome.MATCHED;
+    }
+
+    /**
+     * Adds the movie to the player's likes unless they already like it, see {@link #addLike}. Setting the player's
+     * bit and finding out whether it was already set is one atomic step, so a concurrent like of the same movie
+     * by the same player leaves exactly one of the two reporting the like.
+     *
+     * @param player  the player liking the movie
+     * @param movieId the TMDB ID of the liked movie
+     * @return whether the player already liked the movie, and otherwise whether this like made it a common like
+     */
+    private LikeOutcome tryAddLike(HotPlayer player, Integer movieId) {
+        int likeBit = player.getLikeBit();
+        int previousLikers = likersByMovie.computeIfAbsent(movieId, id -> new AtomicInteger())
+                .getAndAccumulate(likeBit, (likers, bit) -> likers | bit);
+        if ((previousLikers & likeBit) != 0) {
+            return LikeOutcome.ALREADY_LIKED;
+        }
+        roomWriteBehind.recordLike(player.getId(), movieId);
+
+        if ((previousLikers & ~likeBit) == 0) {
+            roomWriteBehind.recordSessionActivity(sessionId);
+            return LikeOutcome.LIKED;
+        }
+
+        // Only the like that turned the movie into a common like records it
+        if (Integer.bitCount(previousLikers) == 1) {
+            int version;
+            synchronized (commonLikes) {
+                commonLikes.add(movieId);
+                version = commonLikes.size();
+            }
+            roomWriteBehind.recordCommonLike(sessionId, movieId, version);
+        }
+        return LikeOutcome.MATCHED;
+    }
+
+    /**
+     * Applies a batch of swipes of the player in the order of their client sequence numbers. Every swipe is
+     * idempotent: a like of a movie the player already likes changes nothing, and a skip is recorded at most once,
+     * so a batch resent by the client, or retried after a later batch went through, is applied without losing or
+     * repeating any swipe. Batches of the same player are applied one at a time.
+     *
+     * @param player the player who swiped
+     * @param swipes the swipes of the player, in any order
+     * @return the IDs of the movies that the likes of this batch made common likes of the room
+     */
+    public List<Integer> applySwipes(HotPlayer player, List<Swipe> swipes) {
+        List<Integer> matchedMovieIds = new ArrayList<>();
+        synchronized (player) {
+            long lastSwipeSequence = player.getLastSwipeSequence();
+            for (Swipe swipe : swipes.stream().sorted(Comparator.comparingLong(Swipe::sequence)).toList()) {
+                lastSwipeSequence = Math.max(lastSwipeSequence, swipe.sequence());
+
+                if (!swipe.liked()) {
+                    roomWriteBehind.recordSkip(player.getId(), swipe.movieId());
+                } else if (tryAddLike(player, swipe.movieId()) == LikeOutcome.MATCHED) {
+                    matchedMovieIds.add(swipe.movieId());
+                }
+            }
+
+            if (lastSwipeSequence > player.getLastSwipeSequence()) {
+                player.setLastSwipeSequence(lastSwipeSequence);
+                roomWriteBehind.recordSwipeSequence(player.getId(), lastSwipeSequence);
+            }
+            if (!swipes.isEmpty()) {
+                roomWriteBehind.recordSessionActivity(sessionId);
+            }
+        }
+        return matchedMovieIds;
+    }
+
+    Set<Integer> getPlayerIds() {
+        return players.values().stream()
+                .map(HotPlayer::getId)
+                .collect(Collectors.toSet());
+    }
+
+    ReadWriteLock getEvictionLock() {
+        return evictionLock;
+    }
+
+    void touch() {
+        lastActivity = Instant.now();
+    }
+
+    boolean isEvicted() {
+        return evicted;
+    }
+
+    void markEvicted() {
+        evicted = true;
+    }
+
+    public record CommonLikes(Integer sessionId, String roomCode, int generation, int version, List<Integer> movieIds,
+                              boolean resync) {
+    }
+
+    public record Swipe(long sequence, boolean liked, Integer movieId) {
+    }
+
+    public record NextSeed(String seed, int seedIndex, boolean appended) {
+    }
+
+    private enum LikeOutcome {
+        ALREADY_LIKED,
+        LIKED,
+        MATCHED
+    }
+}
@@ -0,0 +1,301 @@
+package com.andreea.twoplayermoviepicker.caches;
+
+import com.andreea.twoplayermoviepicker.response_models.MovieResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import static com.andreea.twoplayermoviepicker.utils.ConfigVariables.MOVIE_CATALOG_FRESH_FOR;
+import static com.andreea.twoplayermoviepicker.utils.ConfigVariables.MOVIE_CATALOG_MAX_SIZE_BYTES;
+
+/**
+ * Append-only, memory-mapped on-disk catalog of movie details, used to warm start the node and to keep serving
+ * decks while TMDB is unavailable. Each record is laid out as:
+ * <pre>
+ * int   movieId (written last, a zero value marks the end of the catalog)
+ * long  fetchedAt, as epoch milliseconds
+ * short language length, followed by the UTF-8 language bytes
+ * int   payload length, followed by the JSON-serialized {@link MovieResponse}
+ * </pre>
+ * The (movieId, language) to offset index is kept in memory and rebuilt by scanning the record headers on startup.
+ * A movie fetched again is appended as a new record and the index points to the latest one. The records superseded
+ * this way are dropped by rewriting the catalog with only the latest records, on startup and whenever it is full.
+ */
+@Slf4j
+@Component
+public class MovieCatalog {
+    private static final int MOVIE_ID_BYTES = Integer.BYTES;
+    private static final int HEADER_BYTES = Integer.BYTES + Long.BYTES + Short.BYTES + Integer.BYTES;
+
+    private final ObjectMapper objectMapper;
+    private final Path catalogPath;
+    private final Map<CatalogKey, CatalogEntry> index = new ConcurrentHashMap<>();
+    // Held for writing while a compacted catalog replaces the mapped file, so no read mixes the two
+    private final ReadWriteLock remapLock = new ReentrantReadWriteLock();
+
+    private FileChannel fileChannel;
+    private MappedByteBuffer mappedBuffer;
+    private int writePosition;
+    private int supersededRecords;
+
+    public MovieCatalog(ObjectMapper objectMapper, @Value("${movie-catalog-path}") String catalogPath) {
+        this.objectMapper = objectMapper;
+        this.catalogPath = Path.of(catalogPath);
+    }
+
+    @PostConstruct
+    public synchronized void load() {
+        try {
+            if (catalogPath.getParent() != null) {
+                Files.createDirectories(catalogPath.getParent());
+            }
+            fileChannel = FileChannel.open(catalogPath,
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            mappedBuffer = fileChannel.map(FileChannel.MapMode.READ_WRITE, 0, MOVIE_CATALOG_MAX_SIZE_BYTES);
+            writePosition = scanRecords();
+            log.info("Loaded movie catalog {} with {} movies ({} bytes)", catalogPath, index.size(), writePosition);
+            if (supersededRecords > 0) {
+                tryCompact();
+            }
+        } catch (IOException e) {
+            log.error("Failed to open movie catalog {}, continuing without it: {}", catalogPath, e.getMessage());
+            mappedBuffer = null;
+        }
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        if (mappedBuffer != null) {
+            mappedBuffer.force();
+        }
+        if (fileChannel != null) {
+            fileChannel.close();
+        }
+    }
+
+    /**
+     * Finds a movie fetched less than {@code MOVIE_CATALOG_FRESH_FOR} ago.
+     *
+     * @param movieId  the TMDB ID of the movie
+     * @param language the language of the movie details
+     * @return the movie details, or an empty optional if the movie is missing or stale
+     */
+    public Optional<MovieResponse> findFresh(Integer movieId, String language) {
+        return find(new CatalogKey(movieId, language), Instant.now().minus(MOVIE_CATALOG_FRESH_FOR));
+    }
+
+    /**
+     * Finds a movie regardless of when it was fetched, used as a fallback when TMDB cannot be reached.
+     *
+     * @param movieId  the TMDB ID of the movie
+     * @param language the language of the movie details
+     * @return the movie details, or an empty optional if the movie is not in the catalog
+     */
+    public Optional<MovieResponse> find(Integer movieId, String language) {
+        return find(new CatalogKey(movieId, language), Instant.MIN);
+    }
+
+    /**
+     * Appends a movie to the catalog. If the catalog is full, it is compacted first. The movie is skipped if the
+     * catalog is unavailable, still full after compacting, or the movie has no language.
+     *
+     * @param movieResponse the movie details to store
+     * @param language      the language of the movie details
+     */
+    public synchronized void append(MovieResponse movieResponse, String language) {
+        if (mappedBuffer == null || movieResponse.id() == null || movieResponse.id() == 0 || language == null) {
+            return;
+        }
+        byte[] languageBytes = language.getBytes(StandardCharsets.UTF_8);
+        byte[] payload;
+        try {
+            payload = objectMapper.writeValueAsBytes(movieResponse);
+        } catch (IOException e) {
+            log.warn("Failed to serialize movie {} for the catalog: {}", movieResponse.id(), e.getMessage());
+            return;
+        }
+
+        int recordSize = HEADER_BYTES + languageBytes.length + payload.length;
+        if (!fits(recordSize) && supersededRecords > 0) {
+            tryCompact();
+        }
+        if (!fits(recordSize)) {
+            log.warn("Movie catalog {} is full, movie {} is not stored", catalogPath, movieResponse.id());
+            return;
+        }
+
+        Instant fetchedAt = Instant.now();
+        int payloadPosition = writeRecord(mappedBuffer, writePosition, movieResponse.id(), languageBytes, fetchedAt,
+                payload);
+        if (index.put(new CatalogKey(movieResponse.id(), language),
+                new CatalogEntry(payloadPosition, payload.length, fetchedAt)) != null) {
+            supersededRecords++;
+        }
+        writePosition += recordSize;
+    }
+
+    public Integer size() {
+        return index.size();
+    }
+
+    private boolean fits(int recordSize) {
+        return (long) writePosition + recordSize + MOVIE_ID_BYTES <= MOVIE_CATALOG_MAX_SIZE_BYTES;
+    }
+
+    private static int writeRecord(MappedByteBuffer buffer, int recordPosition, int movieId, byte[] languageBytes,
+                                   Instant fetchedAt, byte[] payload) {
+        int position = recordPosition + MOVIE_ID_BYTES;
+        buffer.putLong(position, fetchedAt.toEpochMilli());
+        position += Long.BYTES;
+        buffer.putShort(position, (short) languageBytes.length);
+        position += Short.BYTES;
+        buffer.put(position, languageBytes);
+        position += languageBytes.length;
+        buffer.putInt(position, payload.length);
+        position += Integer.BYTES;
+        buffer.put(position, payload);
+        // The movie ID is written last, so a record torn by a crash is never picked up by the next scan
+        buffer.putInt(recordPosition, movieId);
+        return position;
+    }
+
+    private void tryCompact() {
+        try {
+            compact();
+        } catch (IOException e) {
+            log.warn("Failed to compact movie catalog {}, keeping the superseded records: {}",
+                    catalogPath, e.getMessage());
+        }
+    }
+
+    /**
+     * Rewrites the catalog with only the latest record of each movie. The records are copied to a new file, which
+     * then replaces the catalog, so a crash while compacting leaves the previous catalog intact.
+     */
+    private void compact() throws IOException {
+        Path compactedPath = catalogPath.resolveSibling(catalogPath.getFileName() + ".compacting");
+        Map<CatalogKey, CatalogEntry> compactedIndex = new HashMap<>();
+        int compactedPosition = 0;
+        try (FileChannel compactedChannel = FileChannel.open(compactedPath, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer compactedBuffer =
+                    compactedChannel.map(FileChannel.MapMode.READ_WRITE, 0, MOVIE_CATALOG_MAX_SIZE_BYTES);
+            for (Map.Entry<CatalogKey, CatalogEntry> indexEntry : index.entrySet()) {
+                CatalogKey catalogKey = indexEntry.getKey();
+                CatalogEntry catalogEntry = indexEntry.getValue();
+                byte[] languageBytes = catalogKey.language().getBytes(StandardCharsets.UTF_8);
+                byte[] payload = new byte[catalogEntry.payloadLength()];
+                mappedBuffer.get(catalogEntry.payloadPosition(), payload);
+
+                int payloadPosition = writeRecord(compactedBuffer, compactedPosition, catalogKey.movieId(),
+                        languageBytes, catalogEntry.fetchedAt(), payload);
+                compactedIndex.put(catalogKey, new CatalogEntry(payloadPosition, payload.length,
+                        catalogEntry.fetchedAt()));
+                compactedPosition = payloadPosition + payload.length;
+            }
+            compactedBuffer.force();
+        }
+
+        Lock writeLock = remapLock.writeLock();
+        writeLock.lock();
+        try {
+            mappedBuffer.force();
+            fileChannel.close();
+            Files.move(compactedPath, catalogPath, StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+            fileChannel = FileChannel.open(catalogPath, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            mappedBuffer = fileChannel.map(FileChannel.MapMode.READ_WRITE, 0, MOVIE_CATALOG_MAX_SIZE_BYTES);
+            index.clear();
+            index.putAll(compactedIndex);
+            log.info("Compacted movie catalog {} from {} to {} bytes", catalogPath, writePosition, compactedPosition);
+            writePosition = compactedPosition;
+            supersededRecords = 0;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private int scanRecords() {
+        int position = 0;
+        while (position + HEADER_BYTES <= MOVIE_CATALOG_MAX_SIZE_BYTES) {
+            int movieId = mappedBuffer.getInt(position);
+            if (movieId == 0) {
+                break;
+            }
+            Instant fetchedAt = Instant.ofEpochMilli(mappedBuffer.getLong(position + MOVIE_ID_BYTES));
+            int languageLength = mappedBuffer.getShort(position + MOVIE_ID_BYTES + Long.BYTES);
+            int payloadLengthPosition = position + MOVIE_ID_BYTES + Long.BYTES + Short.BYTES + languageLength;
+            if (languageLength < 0 || payloadLengthPosition + Integer.BYTES > MOVIE_CATALOG_MAX_SIZE_BYTES) {
+                log.warn("Corrupted movie catalog record at position {}, ignoring the rest of the catalog", position);
+                break;
+            }
+            int payloadLength = mappedBuffer.getInt(payloadLengthPosition);
+            int payloadPosition = payloadLengthPosition + Integer.BYTES;
+            if (payloadLength < 0 || (long) payloadPosition + payloadLength > MOVIE_CATALOG_MAX_SIZE_BYTES) {
+                log.warn("Corrupted movie catalog record at position {}, ignoring the rest of the catalog", position);
+                break;
+            }
+            byte[] languageBytes = new byte[languageLength];
+            mappedBuffer.get(position + MOVIE_ID_BYTES + Long.BYTES + Short.BYTES, languageBytes);
+
+            if (index.put(new CatalogKey(movieId, new String(languageBytes, StandardCharsets.UTF_8)),
+                    new CatalogEntry(payloadPosition, payloadLength, fetchedAt)) != null) {
+                supersededRecords++;
+            }
+            position = payloadPosition + payloadLength;
+        }
+        return position;
+    }
+
+    private Optional<MovieResponse> find(CatalogKey catalogKey, Instant fetchedAfter) {
+        Lock readLock = remapLock.readLock();
+        readLock.lock();
+        try {
+            CatalogEntry catalogEntry = index.get(catalogKey);
+            if (catalogEntry == null || catalogEntry.fetchedAt().isBefore(fetchedAfter)) {
+                return Optional.empty();
+            }
+            return read(catalogEntry);
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    private Optional<MovieResponse> read(CatalogEntry catalogEntry) {
+        byte[] payload = new byte[catalogEntry.payloadLength()];
+        mappedBuffer.get(catalogEntry.payloadPosition(), payload);
+        try {
+            return Optional.of(objectMapper.readValue(payload, MovieResponse.class));
+        } catch (IOException e) {
+            log.warn("Failed to read movie from the catalog at position {}: {}",
+                    catalogEntry.payloadPosition(), e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    private record CatalogKey(Integer movieId, String language) {
+    }
+
+    private record CatalogEntry(Integer payloadPosition, Integer payloadLength, Instant fetchedAt) {
+    }
+}
@@ -0,0 +1,79 @@
+package com.andreea.twoplayermoviepicker.caches;
+
+import com.andreea.twoplayermoviepicker.response_models.CacheStatsResponse;
+import com.andreea.twoplayermoviepicker.response_models.MovieResponse;
+import com.github.benmanes.caffeine.cache.AsyncCacheLoader;
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiFunction;
+
+import static com.andreea.twoplayermoviepicker.utils.ConfigVariables.MOVIE_DETAILS_CACHE_EXPIRE_AFTER;
+import static com.andreea.twoplayermoviepicker.utils.ConfigVariables.MOVIE_DETAILS_CACHE_MAX_SIZE;
+import static com.andreea.twoplayermoviepicker.utils.ConfigVariables.MOVIE_DETAILS_CACHE_REFRESH_AFTER;
+
+/**
+ * Size-bounded cache of movie details keyed by movie ID and language.
+ * Eviction uses Caffeine's W-TinyLFU policy, entries expire after {@code MOVIE_DETAILS_CACHE_EXPIRE_AFTER},
+ * and entries older than {@code MOVIE_DETAILS_CACHE_REFRESH_AFTER} are served stale while being reloaded
+ * in the background. Loads are asynchronous, so no thread waits on a miss. A miss and a background reload use
+ * separate loaders, so a reload can skip the sources a miss falls back on and fetch the movie anew.
+ */
+public class MovieDetailsCache {
+    private static final String CACHE_NAME = "movie-details";
+
+    private final AsyncLoadingCache<MovieKey, MovieResponse> cache;
+    private final LongAdder coalescedLoadCount = new LongAdder();
+
+    public MovieDetailsCache(BiFunction<Integer, String, CompletableFuture<MovieResponse>> loader,
+                             BiFunction<Integer, String, CompletableFuture<MovieResponse>> reloader,
+                             Executor executor) {
+        cache = Caffeine.newBuilder()
+                .maximumSize(MOVIE_DETAILS_CACHE_MAX_SIZE)
+                .expireAfterWrite(MOVIE_DETAILS_CACHE_EXPIRE_AFTER)
+                .refreshAfterWrite(MOVIE_DETAILS_CACHE_REFRESH_AFTER)
+                .executor(executor)
+                .recordStats()
+                .buildAsync(new AsyncCacheLoader<>() {
+                    @Override
+                    public CompletableFuture<MovieResponse> asyncLoad(MovieKey key, Executor loaderExecutor) {
+                        return loader.apply(key.movieId(), key.language());
+                    }
+
+                    @Override
+                    public CompletableFuture<MovieResponse> asyncReload(MovieKey key, MovieResponse oldValue,
+                                                                        Executor loaderExecutor) {
+                        return reloader.apply(key.movieId(), key.language());
+                    }
+                });
+    }
+
+    /**
+     * Returns the details of a movie, loading them on a miss. Concurrent misses for the same key
+     * share a single load instead of each loading the movie; such gets are counted as coalesced loads.
+     *
+     * @param movieId  the TMDB ID of the movie
+     * @param language the language in which the movie details are requested
+     * @return a future of the movie details
+     */
+    public CompletableFuture<MovieResponse> get(Integer movieId, String language) {
+        MovieKey key = new MovieKey(movieId, language);
+        // Read through the map view, which does not count towards the hit and miss statistics
+        CompletableFuture<MovieResponse> loading = cache.asMap().get(key);
+        if (loading != null && !loading.isDone()) {
+            coalescedLoadCount.increment();
+        }
+        return cache.get(key);
+    }
+
+    public CacheStatsResponse getStats() {
+        return CacheStatsResponse.fromCacheStats(CACHE_NAME, cache.synchronous().estimatedSize(),
+                cache.synchronous().stats(), coalescedLoadCount.sum());
+    }
+
+    private record MovieKey(Integer movieId, String language) {
+    }
+}
@@ -0,0 +1,110 @@
+package com.andreea.twoplayermoviepicker.caches;
+
+import com.andreea.twoplayermoviepicker.repositories.SessionRepository;
+import com.andreea.twoplayermoviepicker.utils.UtilityMethods;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.security.SecureRandom;
+import java.util.ArrayDeque;
+import java.util.BitSet;
+import java.util.Queue;
+import java.util.SplittableRandom;
+
+import static com.andreea.twoplayermoviepicker.utils.Constants.MAX_NUMBER_BASE_36;
+import static com.andreea.twoplayermoviepicker.utils.UtilityMethods.intToSeed;
+import static com.andreea.twoplayermoviepicker.utils.UtilityMethods.isSeedValid;
+import static com.andreea.twoplayermoviepicker.utils.UtilityMethods.seedToInt;
+
+/**
+ * Hands out 4-character room codes. Used codes are tracked in a bitmap covering the whole code space, and free
+ * codes are taken from a pool holding every code in a random order, so a free code is found in amortized O(1)
+ * without probing the database. Codes of expired rooms are released back and handed out once the pool of never
+ * used codes runs out. The bitmap is rebuilt from the database on startup.
+ */
+@Slf4j
+@Component
+public class RoomCodeAllocator {
+    private final SessionRepository sessionRepository;
+    private final BitSet usedCodes = new BitSet(MAX_NUMBER_BASE_36.intValue());
+    private final int[] freeCodePool = new int[MAX_NUMBER_BASE_36.intValue()];
+    private final Queue<Integer> releasedCodes = new ArrayDeque<>();
+    private int nextFreeCodeIndex;
+
+    public RoomCodeAllocator(SessionRepository sessionRepository) {
+        this.sessionRepository = sessionRepository;
+
+        // Fisher-Yates shuffle, seeded unpredictably so room codes cannot be guessed from one another
+        SplittableRandom random = new SplittableRandom(new SecureRandom().nextLong());
+        for (int code = 0; code < freeCodePool.length; code++) {
+            int swapIndex = random.nextInt(code + 1);
+            freeCodePool[code] = freeCodePool[swapIndex];
+            freeCodePool[swapIndex] = code;
+        }
+    }
+
+    @PostConstruct
+    public synchronized void loadUsedCodes() {
+        sessionRepository.findAllRoomCodes().stream()
+                .filter(UtilityMethods::isSeedValid)
+                .forEach(roomCode -> usedCodes.set(seedToInt(roomCode)));
+        log.info("Loaded {} room codes in use", usedCodes.cardinality());
+    }
+
+    /**
+     * Takes a free room code and marks it as used.
+     *
+     * @return the allocated room code
+     * @throws IllegalStateException if every room code is in use
+     */
+    public synchronized String allocate() {
+        while (nextFreeCodeIndex < freeCodePool.length) {
+            int code = freeCodePool[nextFreeCodeIndex++];
+            if (!usedCodes.get(code)) {
+                usedCodes.set(code);
+                return intToSeed(code);
+            }
+        }
+
+        Integer releasedCode;
+        while ((releasedCode = releasedCodes.poll()) != null) {
+            if (!usedCodes.get(releasedCode)) {
+                usedCodes.set(releasedCode);
+                return intToSeed(releasedCode);
+            }
+        }
+        throw new IllegalStateException("Every room code is in use");
+    }
+
+    /**
+     * Marks a room code chosen by the client as used.
+     *
+     * @param roomCode the room code to claim
+     * @return true if the code was free and is now claimed, false if it is already in use
+     */
+    public synchronized boolean claim(String roomCode) {
+        int code = seedToInt(roomCode);
+        if (usedCodes.get(code)) {
+            return false;
+        }
+        usedCodes.set(code);
+        return true;
+    }
+
+    /**
+     * Marks a room code as free again, once its room is deleted or was never created.
+     *
+     * @param roomCode the room code to release
+     */
+    public synchronized void release(String roomCode) {
+        if (!isSeedValid(roomCode)) {
+            return;
+        }
+        int code = seedToInt(roomCode);
+        if (usedCodes.get(code)) {
+            usedCodes.clear(code);
+            releasedCodes.add(code);
+        }
+    }
+}
@@ -0,0 +1,259 @@
+package com.andreea.twoplayermoviepicker.caches;
+
+import com.andreea.twoplayermoviepicker.exceptions.RoomUnavailableException;
+import com.andreea.twoplayermoviepicker.models.Player;
+import com.andreea.twoplayermoviepicker.models.PlayerLike;
+import com.andreea.twoplayermoviepicker.models.Session;
+import com.andreea.twoplayermoviepicker.repositories.PlayerLikeRepository;
+import com.andreea.twoplayermoviepicker.repositories.PlayerRepository;
+import com.andreea.twoplayermoviepicker.repositories.SessionCommonLikeRepository;
+import com.andreea.twoplayermoviepicker.repositories.SessionRepository;
+import com.andreea.twoplayermoviepicker.repositories.SessionSeedRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.function.Function;
+
+import static com.andreea.twoplayermoviepicker.utils.ConfigVariables.HOT_ROOM_IDLE_AFTER;
+
+/**
+ * Registry of the active rooms, keyed by room code, serving the seed sequence, seed indexes and likes of a room
+ * from memory. Changes are persisted asynchronously by {@link RoomWriteBehind}. A room missing from the registry,
+ * after a restart or after being evicted for inactivity, is loaded back from Postgres on its next request, once
+ * the changes of its evicted copy are written.
+ * <p>
+ * The memory of this instance is the source of truth for a room, so the backend must run as a single instance.
+ * Several instances would each hold their own copy of a room, and neither would see the other's likes or seeds.
+ */
+@Slf4j
+@Component
+public class RoomRegistry {
+    private final SessionRepository sessionRepository;
+    private final SessionSeedRepository sessionSeedRepository;
+    private final PlayerRepository playerRepository;
+    private final PlayerLikeRepository playerLikeRepository;
+    private final SessionCommonLikeRepository sessionCommonLikeRepository;
+    private final RoomWriteBehind roomWriteBehind;
+    private final TransactionTemplate loadTransaction;
+    private final Map<String, HotRoom> rooms = new ConcurrentHashMap<>();
+    private final Map<String, String> roomCodesByPlayer = new ConcurrentHashMap<>();
+    private final Map<String, EvictedRoom> evictedRooms = new ConcurrentHashMap<>();
+
+    public RoomRegistry(SessionRepository sessionRepository, SessionSeedRepository sessionSeedRepository,
+                        PlayerRepository playerRepository, PlayerLikeRepository playerLikeRepository,
+                        SessionCommonLikeRepository sessionCommonLikeRepository, RoomWriteBehind roomWriteBehind,
+                        PlatformTransactionManager transactionManager) {
+        this.sessionRepository = sessionRepository;
+        this.sessionSeedRepository = sessionSeedRepository;
+        this.playerRepository = playerRepository;
+        this.playerLikeRepository = playerLikeRepository;
+        this.sessionCommonLikeRepository = sessionCommonLikeRepository;
+        this.roomWriteBehind = roomWriteBehind;
+        // Rooms are loaded from the primary even inside read-only transactions, which may run on a lagging replica
+        this.loadTransaction = new TransactionTemplate(transactionManager);
+        this.loadTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Runs the action on the room. Actions run concurrently, holding only a shared lock that keeps the room from
+     * being evicted while they run; {@link HotRoom} synchronizes its state itself. The action must not block.
+     *
+     * @param roomCode the code of the room
+     * @param action   the action to run on the room
+     * @return the result of the action, or an empty optional if the room does not exist
+     */
+    public <T> Optional<T> withRoom(String roomCode, Function<HotRoom, T> action) {
+        while (true) {
+            HotRoom room = getOrLoadRoom(roomCode);
+            if (room == null) {
+                return Optional.empty();
+            }
+            Lock activityLock = room.getEvictionLock().readLock();
+            activityLock.lock();
+            try {
+                // An evicted room may be reloaded with newer state, so retry on the registered one
+                if (!room.isEvicted()) {
+                    room.touch();
+                    return Optional.of(action.apply(room));
+                }
+            } finally {
+                activityLock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Runs the action on the room the player is in, see {@link #withRoom}.
+     *
+     * @param playerSessionId the session ID of the player
+     * @param action          the action to run on the room
+     * @return the result of the action, or an empty optional if the player is not in a room
+     */
+    public <T> Optional<T> withRoomOfPlayer(String playerSessionId, Function<HotRoom, T> action) {
+        String roomCode = roomCodesByPlayer.get(playerSessionId);
+        if (roomCode == null) {
+            // Looked up on the primary, since a player who just joined may not be on the replica yet
+            roomCode = loadTransaction.execute(status ->
+                    playerRepository.findWithSessionByPlayerSessionId(playerSessionId)
+                            .map(Player::getSession)
+                            .map(Session::getRoomCode)
+                            .orElse(null));
+        }
+        if (roomCode == null) {
+            return Optional.empty();
+        }
+        return withRoom(roomCode, action);
+    }
+
+    /**
+     * Checks whether the room is currently held in memory.
+     *
+     * @param roomCode the code of the room
+     * @return true if the room is in memory, false otherwise
+     */
+    public boolean contains(String roomCode) {
+        return roomCode != null && rooms.containsKey(roomCode);
+    }
+
+    /**
+     * Registers a room that was just created, so its first requests are served without loading it.
+     *
+     * @param session the persisted session of the room, with its players
+     * @param seeds   the seed sequence of the room
+     */
+    public void register(Session session, int[] seeds) {
+        HotRoom room = toHotRoom(session, seeds, List.of(), List.of());
+        rooms.put(room.getRoomCode(), room);
+        room.getPlayerSessionIds().forEach(playerSessionId -> roomCodesByPlayer.put(playerSessionId, room.getRoomCode()));
+    }
+
+    /**
+     * Drops the room from memory, for example after its players changed in the database. Its buffered changes
+     * are still written, and it is loaded again on its next request once they are.
+     *
+     * @param roomCode the code of the room
+     */
+    public void evict(String roomCode) {
+        HotRoom room = rooms.get(roomCode);
+        if (room == null) {
+            return;
+        }
+        Lock evictionLock = room.getEvictionLock().writeLock();
+        evictionLock.lock();
+        try {
+            room.markEvicted();
+            // Remembered before the room leaves the registry, so a reload always finds it
+            evictedRooms.put(roomCode, new EvictedRoom(room.getSessionId(), room.getPlayerIds()));
+            rooms.remove(roomCode, room);
+            room.getPlayerSessionIds().forEach(playerSessionId -> roomCodesByPlayer.remove(playerSessionId, roomCode));
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /**
+     * Drops the room the player is in from memory, see {@link #evict}.
+     *
+     * @param playerSessionId the session ID of the player
+     */
+    public void evictRoomOfPlayer(String playerSessionId) {
+        String roomCode = roomCodesByPlayer.get(playerSessionId);
+        if (roomCode != null) {
+            evict(roomCode);
+        }
+    }
+
+    /**
+     * Drops the rooms that had no activity for {@code HOT_ROOM_IDLE_AFTER} from memory.
+     */
+    @Scheduled(fixedDelay = 1, timeUnit = TimeUnit.MINUTES)
+    public void evictIdleRooms() {
+        Instant idleThreshold = Instant.now().minus(HOT_ROOM_IDLE_AFTER);
+        rooms.values().stream()
+                .filter(room -> room.getLastActivity().isBefore(idleThreshold))
+                .map(HotRoom::getRoomCode)
+                .toList()
+                .forEach(this::evict);
+        evictedRooms.values().removeIf(evictedRoom ->
+                !roomWriteBehind.hasPendingWrites(evictedRoom.sessionId(), evictedRoom.playerIds()));
+    }
+
+    private HotRoom getOrLoadRoom(String roomCode) {
+        HotRoom room = rooms.get(roomCode);
+        if (room != null) {
+            return room;
+        }
+
+        // Changes of an evicted copy of the room must reach the database before it is read back
+        EvictedRoom evictedRoom = evictedRooms.get(roomCode);
+        if (evictedRoom != null) {
+            if (!roomWriteBehind.flushRoom(evictedRoom.sessionId(), evictedRoom.playerIds())) {
+                throw new RoomUnavailableException(roomCode);
+            }
+            evictedRooms.remove(roomCode, evictedRoom);
+        }
+        HotRoom loadedRoom = loadTransaction.execute(status -> loadRoom(roomCode));
+        if (loadedRoom == null) {
+            return null;
+        }
+        HotRoom existingRoom = rooms.putIfAbsent(roomCode, loadedRoom);
+        if (existingRoom != null) {
+            return existingRoom;
+        }
+        loadedRoom.getPlayerSessionIds().forEach(playerSessionId -> roomCodesByPlayer.put(playerSessionId, roomCode));
+        log.info("Loaded room {} with {} players from the database", roomCode, loadedRoom.getPlayerSessionIds().size());
+        return loadedRoom;
+    }
+
+    private HotRoom loadRoom(String roomCode) {
+        Optional<Session> optionalSession = sessionRepository.findWithPlayersByRoomCode(roomCode);
+        if (optionalSession.isEmpty()) {
+            return null;
+        }
+        Session session = optionalSession.get();
+        int[] seeds = sessionSeedRepository.findSeeds(session.getId()).stream()
+                .mapToInt(Integer::intValue)
+                .toArray();
+        List<Integer> playerIds = session.getPlayers().stream()
+                .map(Player::getId)
+                .toList();
+        return toHotRoom(session, seeds, playerLikeRepository.findByPlayerIdIn(playerIds),
+                sessionCommonLikeRepository.findMovieIds(session.getId()));
+    }
+
+    private HotRoom toHotRoom(Session session, int[] seeds, List<PlayerLike> likes, List<Integer> commonLikes) {
+        List<HotPlayer> players = new ArrayList<>();
+        Map<Integer, Integer> likeBitsByPlayer = new HashMap<>();
+        for (Player player : session.getPlayers()) {
+            HotPlayer hotPlayer = new HotPlayer(player.getId(), player.getPlayerSessionId(), players.size(),
+                    Objects.requireNonNullElse(player.getSeedIndex(), 0),
+                    Objects.requireNonNullElse(player.getLastSwipeSequence(), 0L));
+            players.add(hotPlayer);
+            likeBitsByPlayer.put(player.getId(), hotPlayer.getLikeBit());
+        }
+
+        Map<Integer, Integer> likersByMovie = new HashMap<>();
+        likes.forEach(like -> likersByMovie.merge(like.getMovieId(), likeBitsByPlayer.get(like.getPlayerId()),
+                (likers, bit) -> likers | bit));
+        return new HotRoom(session.getId(), session.getRoomCode(), session.getGenreIds(), session.getWatchRegion(),
+                session.getWatchProviderIds(), seeds, players, likersByMovie, commonLikes, roomWriteBehind);
+    }
+
+    private record EvictedRoom(Integer sessionId, Set<Integer> playerIds) {
+    }
+}
@@ -0,0 +1,282 @@
+package com.andreea.twoplayermoviepicker.caches;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
+
+/**
+ * Buffers the changes made to {@link HotRoom}s and writes them to Postgres in batches, in one transaction per
+ * flush. Repeated updates of the same session or player are coalesced into one, and every write is idempotent,
+ * so a failed flush is simply retried by the next one. Writes of rooms deleted in the meantime are skipped.
+ * <p>
+ * The buffer lives in the memory of this instance, so like {@link RoomRegistry} it assumes a single backend
+ * instance: another instance reading a room from Postgres would not see the changes still buffered here.
+ */
+@Slf4j
+@Component
+public class RoomWriteBehind {
+    private static final String INSERT_SEED_SQL = "INSERT INTO session_seeds (session_id, seed_index, seed) " +
+            "SELECT ?, ?, ? WHERE EXISTS (SELECT 1 FROM sessions WHERE id = ?) ON CONFLICT DO NOTHING";
+    private static final String INSERT_LIKE_SQL = "INSERT INTO player_likes (player_id, movie_id, created_at) " +
+            "SELECT ?, ?, ? WHERE EXISTS (SELECT 1 FROM players WHERE id = ?) ON CONFLICT DO NOTHING";
+    private static final String INSERT_SKIP_SQL = "INSERT INTO player_skips (player_id, movie_id, created_at) " +
+            "SELECT ?, ?, ? WHERE EXISTS (SELECT 1 FROM players WHERE id = ?) ON CONFLICT DO NOTHING";
+    private static final String INSERT_COMMON_LIKE_SQL = "INSERT INTO session_common_likes " +
+            "(session_id, movie_id, version, created_at) SELECT ?, ?, ?, ? " +
+            "WHERE EXISTS (SELECT 1 FROM sessions WHERE id = ?) ON CONFLICT DO NOTHING";
+    private static final String UPDATE_SESSION_SQL = "UPDATE sessions " +
+            "SET seed_count = GREATEST(seed_count, COALESCE(?, seed_count)), updated_at = now() WHERE id = ?";
+    private static final String UPDATE_PLAYER_SQL = "UPDATE players " +
+            "SET seed_index = COALESCE(?, seed_index), " +
+            "last_swipe_sequence = GREATEST(last_swipe_sequence, COALESCE(?, last_swipe_sequence)), " +
+            "updated_at = now() WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Queue<SeedWrite> pendingSeeds = new ConcurrentLinkedQueue<>();
+    private final Queue<LikeWrite> pendingLikes = new ConcurrentLinkedQueue<>();
+    private final Queue<SkipWrite> pendingSkips = new ConcurrentLinkedQueue<>();
+    private final Queue<CommonLikeWrite> pendingCommonLikes = new ConcurrentLinkedQueue<>();
+    private final Map<Integer, SessionWrite> pendingSessions = new ConcurrentHashMap<>();
+    private final Map<Integer, PlayerWrite> pendingPlayers = new ConcurrentHashMap<>();
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    public RoomWriteBehind(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    void recordSeed(Integer sessionId, int seedIndex, int seed) {
+        pendingSeeds.add(new SeedWrite(sessionId, seedIndex, seed));
+        pendingSessions.merge(sessionId, new SessionWrite(seedIndex + 1), SessionWrite::then);
+    }
+
+    void recordSeedIndex(Integer playerId, int seedIndex) {
+        pendingPlayers.merge(playerId, new PlayerWrite(seedIndex, null), PlayerWrite::then);
+    }
+
+    void recordSwipeSequence(Integer playerId, long swipeSequence) {
+        pendingPlayers.merge(playerId, new PlayerWrite(null, swipeSequence), PlayerWrite::then);
+    }
+
+    void recordLike(Integer playerId, Integer movieId) {
+        pendingLikes.add(new LikeWrite(playerId, movieId, LocalDateTime.now()));
+        pendingPlayers.merge(playerId, new PlayerWrite(null, null), PlayerWrite::then);
+    }
+
+    void recordSkip(Integer playerId, Integer movieId) {
+        pendingSkips.add(new SkipWrite(playerId, movieId, LocalDateTime.now()));
+        pendingPlayers.merge(playerId, new PlayerWrite(null, null), PlayerWrite::then);
+    }
+
+    void recordCommonLike(Integer sessionId, Integer movieId, int version) {
+        pendingCommonLikes.add(new CommonLikeWrite(sessionId, movieId, version, LocalDateTime.now()));
+        recordSessionActivity(sessionId);
+    }
+
+    void recordSessionActivity(Integer sessionId) {
+        pendingSessions.merge(sessionId, new SessionWrite(null), SessionWrite::then);
+    }
+
+    /**
+     * Writes every buffered change to Postgres. Runs every second and on shutdown. If the write fails the changes
+     * are put back and retried on the next flush.
+     */
+    @Scheduled(fixedDelay = 1, timeUnit = TimeUnit.SECONDS)
+    public void flush() {
+        flushLock.lock();
+        try {
+            writeOrRequeue(drain(pendingSeeds, seed -> true), drain(pendingLikes, like -> true),
+                    drain(pendingSkips, skip -> true), drain(pendingCommonLikes, commonLike -> true),
+                    drain(pendingSessions, sessionId -> true), drain(pendingPlayers, playerId -> true));
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Writes the buffered changes of one room to Postgres, before the room is reloaded from the database. The
+     * changes of other rooms are left to the scheduled flush. Waits for a flush in progress, since the changes it
+     * holds are put back if it fails.
+     *
+     * @param sessionId the ID of the room's session
+     * @param playerIds the IDs of the room's players
+     * @return true if no change of the room is left buffered, false if writing them failed
+     */
+    boolean flushRoom(Integer sessionId, Set<Integer> playerIds) {
+        flushLock.lock();
+        try {
+            return writeOrRequeue(drain(pendingSeeds, seed -> seed.sessionId().equals(sessionId)),
+                    drain(pendingLikes, like -> playerIds.contains(like.playerId())),
+                    drain(pendingSkips, skip -> playerIds.contains(skip.playerId())),
+                    drain(pendingCommonLikes, commonLike -> commonLike.sessionId().equals(sessionId)),
+                    drain(pendingSessions, sessionId::equals),
+                    drain(pendingPlayers, playerIds::contains));
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Checks whether changes of a room are still buffered, for example because the last flush failed. Waits for
+     * a flush in progress, since the changes it holds are put back if it fails.
+     *
+     * @param sessionId the ID of the room's session
+     * @param playerIds the IDs of the room's players
+     * @return true if a change of the session or one of the players is not written yet, false otherwise
+     */
+    boolean hasPendingWrites(Integer sessionId, Set<Integer> playerIds) {
+        flushLock.lock();
+        try {
+            return pendingSessions.containsKey(sessionId)
+                    || playerIds.stream().anyMatch(pendingPlayers::containsKey)
+                    || pendingSeeds.stream().anyMatch(seed -> seed.sessionId().equals(sessionId))
+                    || pendingCommonLikes.stream().anyMatch(like -> like.sessionId().equals(sessionId))
+                    || pendingLikes.stream().anyMatch(like -> playerIds.contains(like.playerId()))
+                    || pendingSkips.stream().anyMatch(skip -> playerIds.contains(skip.playerId()));
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    private boolean writeOrRequeue(List<SeedWrite> seeds, List<LikeWrite> likes, List<SkipWrite> skips,
+                                   List<CommonLikeWrite> commonLikes, Map<Integer, SessionWrite> sessions,
+                                   Map<Integer, PlayerWrite> players) {
+        if (seeds.isEmpty() && likes.isEmpty() && skips.isEmpty() && commonLikes.isEmpty() && sessions.isEmpty()
+                && players.isEmpty()) {
+            return true;
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> write(seeds, likes, skips, commonLikes, sessions,
+                    players));
+            log.debug("Flushed {} seeds, {} likes, {} skips, {} common likes, {} sessions and {} players",
+                    seeds.size(), likes.size(), skips.size(), commonLikes.size(), sessions.size(), players.size());
+            return true;
+        } catch (RuntimeException e) {
+            log.warn("Failed to flush room changes, retrying on the next flush: {}", e.getMessage());
+            pendingSeeds.addAll(seeds);
+            pendingLikes.addAll(likes);
+            pendingSkips.addAll(skips);
+            pendingCommonLikes.addAll(commonLikes);
+            sessions.forEach((id, write) -> pendingSessions.merge(id, write, (newer, older) -> older.then(newer)));
+            players.forEach((id, write) -> pendingPlayers.merge(id, write, (newer, older) -> older.then(newer)));
+            return false;
+        }
+    }
+
+    private void write(List<SeedWrite> seeds, List<LikeWrite> likes, List<SkipWrite> skips,
+                       List<CommonLikeWrite> commonLikes, Map<Integer, SessionWrite> sessions,
+                       Map<Integer, PlayerWrite> players) {
+        jdbcTemplate.batchUpdate(INSERT_SEED_SQL, seeds.stream()
+                        .map(seed -> new Object[]{seed.sessionId(), seed.seedIndex(), seed.seed(), seed.sessionId()})
+                        .toList(),
+                new int[]{Types.INTEGER, Types.INTEGER, Types.INTEGER, Types.INTEGER});
+        jdbcTemplate.batchUpdate(INSERT_LIKE_SQL, likes.stream()
+                        .map(like -> new Object[]{like.playerId(), like.movieId(),
+                                Timestamp.valueOf(like.createdAt()), like.playerId()})
+                        .toList(),
+                new int[]{Types.INTEGER, Types.INTEGER, Types.TIMESTAMP, Types.INTEGER});
+        jdbcTemplate.batchUpdate(INSERT_SKIP_SQL, skips.stream()
+                        .map(skip -> new Object[]{skip.playerId(), skip.movieId(),
+                                Timestamp.valueOf(skip.createdAt()), skip.playerId()})
+                        .toList(),
+                new int[]{Types.INTEGER, Types.INTEGER, Types.TIMESTAMP, Types.INTEGER});
+        jdbcTemplate.batchUpdate(INSERT_COMMON_LIKE_SQL, commonLikes.stream()
+                        .map(like -> new Object[]{like.sessionId(), like.movieId(), like.version(),
+                                Timestamp.valueOf(like.createdAt()), like.sessionId()})
+                        .toList(),
+                new int[]{Types.INTEGER, Types.INTEGER, Types.INTEGER, Types.TIMESTAMP, Types.INTEGER});
+        jdbcTemplate.batchUpdate(UPDATE_SESSION_SQL, sessions.entrySet().stream()
+                        .map(entry -> new Object[]{entry.getValue().seedCount(), entry.getKey()})
+                        .toList(),
+                new int[]{Types.INTEGER, Types.INTEGER});
+        jdbcTemplate.batchUpdate(UPDATE_PLAYER_SQL, players.entrySet().stream()
+                        .map(entry -> new Object[]{entry.getValue().seedIndex(), entry.getValue().swipeSequence(),
+                                entry.getKey()})
+                        .toList(),
+                new int[]{Types.INTEGER, Types.BIGINT, Types.INTEGER});
+    }
+
+    private static <T> List<T> drain(Queue<T> pending, Predicate<T> filter) {
+        List<T> drained = new ArrayList<>();
+        Iterator<T> iterator = pending.iterator();
+        while (iterator.hasNext()) {
+            T item = iterator.next();
+            if (filter.test(item)) {
+                iterator.remove();
+                drained.add(item);
+            }
+        }
+        return drained;
+    }
+
+    private static <K, V> Map<K, V> drain(Map<K, V> pending, Predicate<K> filter) {
+        Map<K, V> drained = new HashMap<>();
+        for (K key : pending.keySet()) {
+            if (!filter.test(key)) {
+                continue;
+            }
+            V value = pending.remove(key);
+            if (value != null) {
+                drained.put(key, value);
+            }
+        }
+        return drained;
+    }
+
+    private record SeedWrite(Integer sessionId, int seedIndex, int seed) {
+    }
+
+    private record LikeWrite(Integer playerId, Integer movieId, LocalDateTime createdAt) {
+    }
+
+    private record SkipWrite(Integer playerId, Integer movieId, LocalDateTime createdAt) {
+    }
+
+    private record CommonLikeWrite(Integer sessionId, Integer movieId, int version, LocalDateTime createdAt) {
+    }
+
+    private record SessionWrite(Integer seedCount) {
+        private SessionWrite then(SessionWrite newer) {
+            if (seedCount == null || newer.seedCount() == null) {
+                return new SessionWrite(seedCount == null ? newer.seedCount() : seedCount);
+            }
+            return new SessionWrite(Math.max(seedCount, newer.seedCount()));
+        }
+    }
+
+    private record PlayerWrite(Integer seedIndex, Long swipeSequence) {
+        private PlayerWrite then(PlayerWrite newer) {
+            Integer latestSeedIndex = newer.seedIndex() != null ? newer.seedIndex() : seedIndex;
+            if (swipeSequence == null || newer.swipeSequence() == null) {
+                return new PlayerWrite(latestSeedIndex, swipeSequence == null ? newer.swipeSequence() : swipeSequence);
+            }
+            return new PlayerWrite(latestSeedIndex, Math.max(swipeSequence, newer.swipeSequence()));
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.andreea.twoplayermoviepicker.clients;
+
+import com.andreea.twoplayermoviepicker.caches.DiscoverFilter;
+import com.andreea.twoplayermoviepicker.exceptions.TmdbStatusException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import info.movito.themoviedbapi.model.core.MovieResultsPage;
+import info.movito.themoviedbapi.model.movies.MovieDb;
+import info.movito.themoviedbapi.tools.TmdbException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.stream.Collectors;
+
+import static com.andreea.twoplayermoviepicker.utils.ConfigVariables.TMDB_CONNECT_TIMEOUT;
+import static com.andreea.twoplayermoviepicker.utils.ConfigVariables.TMDB_REQUEST_TIMEOUT;
+import static com.andreea.twoplayermoviepicker.utils.Constants.TMDB_API_BASE_URL;
+import static java.lang.String.format;
+
+/**
+ * Non-blocking client for the TMDB endpoints on the deck path, mapping the responses to the same {@link MovieDb}
+ * and {@link MovieResultsPage} models as the {@code themoviedbapi} library. Requests are multiplexed over HTTP/2
+ * and no thread waits while they are in flight; the returned futures complete on a virtual thread of the
+ * TMDB executor.
+ */
+@Slf4j
+@Component
+public class TmdbHttpClient {
+    private static final String OR_SEPARATOR = "|";
+
+    private final String tmdbApiKey;
+    private final ObjectMapper objectMapper;
+    private final HttpClient httpClient;
+
+    public TmdbHttpClient(@Value("${tmdb-api-key}") String tmdbApiKey,
+                          @Qualifier("tmdbExecutor") ExecutorService tmdbExecutor,
+                          ObjectMapper objectMapper) {
+        this.tmdbApiKey = tmdbApiKey;
+        this.objectMapper = objectMapper;
+        httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(TMDB_CONNECT_TIMEOUT)
+                .executor(tmdbExecutor)
+                .build();
+    }
+
+    /**
+     * Fetches the details of a movie, with its videos appended.
+     *
+     * @param movieId  the TMDB ID of the movie
+     * @param language the language in which the movie details are requested
+     * @return a future of the movie details, completed exceptionally with a {@link TmdbStatusException} if TMDB
+     * answers with an error status, or with a {@link TmdbException} if the response cannot be read
+     */
+    public CompletableFuture<MovieDb> getMovieDetails(Integer movieId, String language) {
+        URI uri = UriComponentsBuilder.fromUriString(TMDB_API_BASE_URL)
+                .path("/movie/{movieId}")
+                .queryParam("language", language)
+                .queryParam("append_to_response", "videos")
+                .buildAndExpand(movieId)
+                .encode()
+                .toUri();
+        return get(uri, MovieDb.class);
+    }
+
+    /**
+     * Fetches a page of the discover endpoint. Genres and watch providers are combined with OR, like the
+     * discover requests made through the library.
+     *
+     * @param page   the discover page number
+     * @param filter the filter combination of the discover request
+     * @return a future of the discover results page, completed exceptionally with a {@link TmdbStatusException} if
+     * TMDB answers with an error status, or with a {@link TmdbException} if the response cannot be read
+     */
+    public CompletableFuture<MovieResultsPage> discoverMovies(Integer page, DiscoverFilter filter) {
+        UriComponentsBuilder uriBuilder = UriComponentsBuilder.fromUriString(TMDB_API_BASE_URL)
+                .path("/discover/movie")
+                .queryParam("include_adult", false)
+                .queryParam("include_video", false)
+                .queryParam("language", filter.language())
+                .queryParam("page", page)
+                .queryParam("sort_by", filter.sortBy().getValue());
+        if (!filter.genres().isEmpty()) {
+            uriBuilder.queryParam("with_genres", joinWithOr(filter.genres()));
+        }
+        if (filter.watchRegion() != null) {
+            uriBuilder.queryParam("watch_region", filter.watchRegion());
+        }
+        if (!filter.watchProviders().isEmpty()) {
+            uriBuilder.queryParam("with_watch_providers", joinWithOr(filter.watchProviders()));
+        }
+        return get(uriBuilder.encode().build().toUri(), MovieResultsPage.class);
+    }
+
+    private <T> CompletableFuture<T> get(URI uri, Class<T> responseType) {
+        HttpRequest request = HttpRequest.newBuilder(uri)
+                .timeout(TMDB_REQUEST_TIMEOUT)
+                .header("Authorization", "Bearer " + tmdbApiKey)
+                .header("Accept", "application/json")
+                .GET()
+                .build();
+        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString())
+                .thenApply(response -> readResponse(uri, response, responseType));
+    }
+
+    private <T> T readResponse(URI uri, HttpResponse<String> response, Class<T> responseType) {
+        if (response.statusCode() / 100 != 2) {
+            log.warn("TMDB responded with status {} to {}", response.statusCode(), uri.getPath());
+            throw new CompletionException(new TmdbStatusException(response.statusCode(), uri.getPath()));
+        }
+        try {
+            return objectMapper.readValue(response.body(), responseType);
+        } catch (JsonProcessingException e) {
+            throw new CompletionException(new TmdbException(format("Could not read the TMDB response to %s: %s",
+                    uri.getPath(), e.getOriginalMessage())));
+        }
+    }
+
+    private static String joinWithOr(List<Integer> ids) {
+        return ids.stream()
+                .map(String::valueOf)
+                .collect(Collectors.joining(OR_SEPARATOR));
+    }
+}
@@ -0,0 +1,74 @@
+package com.andreea.twoplayermoviepicker.configs;
+
+import com.andreea.twoplayermoviepicker.services.ReplicaLagMonitor;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.flyway.FlywayDataSource;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+
+@Configuration
+public class DataSourceConfiguration {
+    /**
+     * Connection pool of the primary database, which takes every write and is the one Flyway migrates.
+     *
+     * @param dataSourceProperties the {@code spring.datasource} properties
+     * @return the pool of the primary database
+     */
+    @Bean
+    @FlywayDataSource
+    public HikariDataSource primaryDataSource(DataSourceProperties dataSourceProperties) {
+        HikariDataSource dataSource = dataSourceProperties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    /**
+     * Connection pool of the read replica. Without replica settings it points at the primary database, which
+     * stands in for a replica in local development.
+     *
+     * @return the pool of the read replica
+     */
+    @Bean
+    public HikariDataSource replicaDataSource(@Value("${replica.datasource.url}") String url,
+                                              @Value("${replica.datasource.username}") String username,
+                                              @Value("${replica.datasource.password}") String password) {
+        HikariDataSource dataSource = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .url(url)
+                .username(username)
+                .password(password)
+                .build();
+        dataSource.setPoolName("replica");
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    /**
+     * Data source used by JPA and JDBC. Connections are only fetched when a transaction runs its first statement,
+     * by which time a {@code @Transactional(readOnly = true)} transaction has marked its connection read-only;
+     * those connections then come from the replica while {@link ReplicaLagMonitor} considers it usable, and every
+     * other connection comes from the primary.
+     *
+     * @return the routing data source
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primaryDataSource,
+                                 @Qualifier("replicaDataSource") DataSource replicaDataSource,
+                                 ReplicaLagMonitor replicaLagMonitor) {
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(primaryDataSource);
+        dataSource.setReadOnlyDataSource(new ReplicaRoutingDataSource(primaryDataSource, replicaDataSource,
+                replicaLagMonitor::isReplicaUsable));
+        return dataSource;
+    }
+}
@@ -0,0 +1,32 @@
+package com.andreea.twoplayermoviepicker.configs;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+@Configuration
+public class ExecutorConfiguration {
+    /**
+     * Executor used for outbound TMDB calls. Every task runs on its own virtual thread, so fanning out
+     * the detail requests of a deck costs no platform threads while they wait on the network.
+     *
+     * @return an executor that starts a new virtual thread for each submitted task
+     */
+    @Bean(name = "tmdbExecutor", destroyMethod = "close")
+    public ExecutorService tmdbExecutor() {
+        return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("tmdb-", 0).factory());
+    }
+
+    /**
+     * Executor used to push room events to subscribed players. Every send runs on its own virtual thread, so a
+     * client reading its stream slowly blocks only that send.
+     *
+     * @return an executor that starts a new virtual thread for each submitted task
+     */
+    @Bean(name = "roomEventExecutor", destroyMethod = "close")
+    public ExecutorService roomEventExecutor() {
+        return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("room-event-", 0).factory());
+    }
+}
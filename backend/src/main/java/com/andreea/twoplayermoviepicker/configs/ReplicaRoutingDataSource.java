@@ -0,0 +1,33 @@
+package com.andreea.twoplayermoviepicker.configs;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.util.Map;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Serves read-only connections from the replica while it is usable, and from the primary otherwise, so read-only
+ * transactions keep working when the replica lags behind or is down.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+    private final BooleanSupplier replicaUsable;
+
+    public ReplicaRoutingDataSource(DataSource primaryDataSource, DataSource replicaDataSource,
+                                    BooleanSupplier replicaUsable) {
+        this.replicaUsable = replicaUsable;
+        setTargetDataSources(Map.of(Route.PRIMARY, primaryDataSource, Route.REPLICA, replicaDataSource));
+        setDefaultTargetDataSource(primaryDataSource);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return replicaUsable.getAsBoolean() ? Route.REPLICA : Route.PRIMARY;
+    }
+
+    private enum Route {
+        PRIMARY,
+        REPLICA
+    }
+}
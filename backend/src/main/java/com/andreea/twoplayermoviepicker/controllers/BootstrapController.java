@@ -0,0 +1,43 @@
+package com.andreea.twoplayermoviepicker.controllers;
+
+import com.andreea.twoplayermoviepicker.response_models.BootstrapResponse;
+import com.andreea.twoplayermoviepicker.services.BootstrapService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.concurrent.CompletableFuture;
+
+@RequiredArgsConstructor
+
+@CrossOrigin(origins = "${FRONTEND_IP}")
+@RestController
+@RequestMapping("/api/v1")
+public class BootstrapController {
+    private final BootstrapService bootstrapService;
+
+    /**
+     * Retrieves everything the main page needs on load in a single request, instead of separate calls to
+     * can-player-rejoin, genres and watch-providers.
+     *
+     * @param playerSessionId    the unique session identifier of the player opening the main page
+     * @param watchRegion        the region code (e.g., country ISO code) for which the watch provider data is requested
+     * @param language           the language code in which the watch provider data is requested
+     * @param genresETag         the ETag of the genres already held by the client, if any
+     * @param watchProvidersETag the ETag of the watch providers already held by the client, if any
+     * @return a future of a ResponseEntity containing whether the player can rejoin a room and its room code,
+     * and the movie genres and the watch providers of the region along with their ETags, leaving out the lists
+     * the client already holds
+     */
+    @GetMapping("bootstrap")
+    public CompletableFuture<ResponseEntity<BootstrapResponse>> getBootstrap(
+            @RequestParam String playerSessionId, @RequestParam String watchRegion, @RequestParam String language,
+            @RequestParam(required = false) String genresETag,
+            @RequestParam(required = false) String watchProvidersETag) {
+        return bootstrapService.getBootstrap(playerSessionId, watchRegion, language, genresETag, watchProvidersETag);
+    }
+}
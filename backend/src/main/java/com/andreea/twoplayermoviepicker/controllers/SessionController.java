@@ -2,66 +2,176 @@ package com.andreea.twoplayermoviepicker.controllers;
 
 import com.andreea.twoplayermoviepicker.request_models.LikeRequest;
 import com.andreea.twoplayermoviepicker.request_models.RoomRequest;
+import com.andreea.twoplayermoviepicker.request_models.SwipeBatchRequest;
+import com.andreea.twoplayermoviepicker.response_models.CommonLikesResponse;
 import com.andreea.twoplayermoviepicker.response_models.MovieResponse;
+import com.andreea.twoplayermoviepicker.response_models.SwipeBatchResponse;
 import com.andreea.twoplayermoviepicker.services.SessionService;
+import com.andreea.twoplayermoviepicker.utils.MovieProjection;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static com.andreea.twoplayermoviepicker.utils.Constants.IMAGE_BASE_URL_HEADER;
+import static com.andreea.twoplayermoviepicker.utils.Constants.ROOM_CODE_HEADER;
+import static com.andreea.twoplayermoviepicker.utils.Constants.TMDB_IMAGE_BASE_URL;
 
 @RequiredArgsConstructor
 
-@CrossOrigin(origins = "${FRONTEND_IP}")//TODO: get rid of origins = ...
+@CrossOrigin(origins = "${FRONTEND_IP}", exposedHeaders = {IMAGE_BASE_URL_HEADER, ROOM_CODE_HEADER})//TODO: get rid of origins = ...
 @RestController
 @RequestMapping("/api/v1/session")
 public class SessionController {
     private final SessionService sessionService;
 
     /**
-     * Creates a new room session with the specified parameters provided in the request body.
+     * Creates a new room session with the specified parameters provided in the request body. When the request has
+     * no seed, the server allocates the room code; either way the code is returned in the {@code Room-Code} header.
      *
-     * @param request the request containing the initial seed, player session ID, and language preferences
-     * @return a ResponseEntity containing a list of MovieResponse objects that are part of the created room session
+     * @param request the request containing the optional initial seed, player session ID, and language preferences
+     * @return a future of a ResponseEntity containing a list of MovieResponse objects that are part of the created
+     * room session
      */
     @PostMapping("create-room")
-    public ResponseEntity<List<MovieResponse>> createRoom(@RequestBody RoomRequest request) {
+    public CompletableFuture<ResponseEntity<List<MovieResponse>>> createRoom(@RequestBody RoomRequest request) {
         return sessionService.createRoom(request);
     }
 
+    /**
+     * Creates a new room session and streams the movies of its first deck as newline-delimited JSON, each one
+     * as soon as its details are fetched, in deck order. Selected by the {@code stream=true} parameter.
+     *
+     * @param request the request containing the optional initial seed, player session ID, and language preferences
+     * @param fields  optionally, "compact" or a comma-separated list of movie fields to stream each movie with
+     * @return a ResponseEntity with the room code in the {@code Room-Code} header, streaming the MovieResponse
+     * objects of the created room session
+     */
+    @PostMapping(value = "create-room", params = "stream=true", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<ResponseBodyEmitter> streamCreateRoom(@RequestBody RoomRequest request,
+                                                                @RequestParam(required = false) String fields) {
+        MovieProjection projection = fields != null ? MovieProjection.parse(fields) : null;
+        return toProjectedStreamingResponse(sessionService.streamCreateRoom(request, projection), projection);
+    }
+
+    /**
+     * Creates a new room session and returns only the requested fields of each movie.
+     *
+     * @param request the request containing the initial seed, player session ID, and language preferences
+     * @param fields  "compact" for the fields rendered by the swipe card, or a comma-separated list of movie fields
+     * @return a future of a ResponseEntity containing the projected movies of the created room session
+     */
+    @PostMapping(value = "create-room", params = {"fields", "stream!=true"})
+    public CompletableFuture<ResponseEntity<List<Map<String, Object>>>> createRoom(
+            @RequestBody RoomRequest request, @RequestParam String fields) {
+        MovieProjection projection = MovieProjection.parse(fields);
+        return sessionService.createRoom(request).thenApply(response -> toProjectedResponse(response, projection));
+    }
+
     /**
      * Allows a player to join an existing room session using the provided request details.
      *
      * @param request the request containing the seed of the room to join, the player session ID,
      *                and the language preferences
-     * @return a ResponseEntity containing a list of MovieResponse objects associated with the existing room session,
-     * or an appropriate error response if the room cannot be joined
+     * @return a future of a ResponseEntity containing a list of MovieResponse objects associated with the existing
+     * room session, or an appropriate error response if the room cannot be joined
      */
     @PostMapping("join-room")
-    public ResponseEntity<List<MovieResponse>> joinRoom(@RequestBody RoomRequest request) {
+    public CompletableFuture<ResponseEntity<List<MovieResponse>>> joinRoom(@RequestBody RoomRequest request) {
         return sessionService.joinRoom(request);
     }
 
+    /**
+     * Joins an existing room session and streams the movies of its first deck as newline-delimited JSON, each one
+     * as soon as its details are fetched, in deck order. Selected by the {@code stream=true} parameter.
+     *
+     * @param request the request containing the seed of the room to join, the player session ID,
+     *                and the language preferences
+     * @param fields  optionally, "compact" or a comma-separated list of movie fields to stream each movie with
+     * @return a ResponseEntity streaming the MovieResponse objects of the joined room session
+     */
+    @PostMapping(value = "join-room", params = "stream=true", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<ResponseBodyEmitter> streamJoinRoom(@RequestBody RoomRequest request,
+                                                              @RequestParam(required = false) String fields) {
+        MovieProjection projection = fields != null ? MovieProjection.parse(fields) : null;
+        return toProjectedStreamingResponse(sessionService.streamJoinRoom(request, projection), projection);
+    }
+
+    /**
+     * Joins an existing room session and returns only the requested fields of each movie.
+     *
+     * @param request the request containing the seed of the room to join, the player session ID,
+     *                and the language preferences
+     * @param fields  "compact" for the fields rendered by the swipe card, or a comma-separated list of movie fields
+     * @return a future of a ResponseEntity containing the projected movies of the joined room session
+     */
+    @PostMapping(value = "join-room", params = {"fields", "stream!=true"})
+    public CompletableFuture<ResponseEntity<List<Map<String, Object>>>> joinRoom(
+            @RequestBody RoomRequest request, @RequestParam String fields) {
+        MovieProjection projection = MovieProjection.parse(fields);
+        return sessionService.joinRoom(request).thenApply(response -> toProjectedResponse(response, projection));
+    }
+
     /**
      * Fetches additional movies for a session based on the provided room details
      * and updates the player's seed index or generates a new seed if necessary.
      *
      * @param request the request containing the necessary details about the session, including
      *                the seed, player session ID, and language preferences
-     * @return a ResponseEntity containing a list of MovieResponse objects representing
+     * @return a future of a ResponseEntity containing a list of MovieResponse objects representing
      * the fetched movies or an appropriate error response in case of failure
      */
     @PostMapping("fetch-more")
-    public ResponseEntity<List<MovieResponse>> fetchMoreMovies(@RequestBody RoomRequest request) {
+    public CompletableFuture<ResponseEntity<List<MovieResponse>>> fetchMoreMovies(@RequestBody RoomRequest request) {
         return sessionService.fetchMoreMovies(request);
     }
 
+    /**
+     * Fetches additional movies for a session and streams them as newline-delimited JSON, each one as soon as its
+     * details are fetched, in deck order. Selected by the {@code stream=true} parameter.
+     *
+     * @param request the request containing the necessary details about the session, including
+     *                the seed, player session ID, and language preferences
+     * @param fields  optionally, "compact" or a comma-separated list of movie fields to stream each movie with
+     * @return a ResponseEntity streaming the MovieResponse objects of the fetched movies
+     */
+    @PostMapping(value = "fetch-more", params = "stream=true", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<ResponseBodyEmitter> streamFetchMoreMovies(@RequestBody RoomRequest request,
+                                                                     @RequestParam(required = false) String fields) {
+        MovieProjection projection = fields != null ? MovieProjection.parse(fields) : null;
+        return toProjectedStreamingResponse(sessionService.streamFetchMoreMovies(request, projection), projection);
+    }
+
+    /**
+     * Fetches additional movies for a session and returns only the requested fields of each movie.
+     *
+     * @param request the request containing the necessary details about the session, including
+     *                the seed, player session ID, and language preferences
+     * @param fields  "compact" for the fields rendered by the swipe card, or a comma-separated list of movie fields
+     * @return a future of a ResponseEntity containing the projected fetched movies
+     */
+    @PostMapping(value = "fetch-more", params = {"fields", "stream!=true"})
+    public CompletableFuture<ResponseEntity<List<Map<String, Object>>>> fetchMoreMovies(
+            @RequestBody RoomRequest request, @RequestParam String fields) {
+        MovieProjection projection = MovieProjection.parse(fields);
+        return sessionService.fetchMoreMovies(request).thenApply(response -> toProjectedResponse(response, projection));
+    }
+
     /**
      * Adds the specified movie to the player's list of liked movies and determines if the movie
      * is commonly liked by both players in the session.
@@ -75,6 +185,34 @@ public class SessionController {
         return sessionService.addToLikesAndReturnIsCommon(request);
     }
 
+    /**
+     * Applies a batch of likes and skips of a player in the order of their client sequence numbers. Every swipe is
+     * idempotent, so a batch resent or retried after a later one is applied without repeating any swipe.
+     *
+     * @param request the request containing the session's seed, the player's session ID and the swipes to apply
+     * @return a ResponseEntity containing the highest sequence number of the player's applied swipes and the IDs of
+     * the movies that became common likes of both players because of the batch
+     */
+    @PostMapping("swipes")
+    public ResponseEntity<SwipeBatchResponse> submitSwipes(@RequestBody SwipeBatchRequest request) {
+        return sessionService.submitSwipes(request);
+    }
+
+    /**
+     * Streams the events of the player's room as Server-Sent Events: "match" when a movie becomes a common like,
+     * "player-joined" when another player joins the room, and "partner-advanced-deck" when the other player moves
+     * to their next deck.
+     *
+     * @param seed            the room code of the player's room
+     * @param playerSessionId the unique session identifier of the subscribing player
+     * @return an SseEmitter streaming the room's events, or an appropriate error response if the player is not
+     * in the room
+     */
+    @GetMapping("events")
+    public SseEmitter subscribeToRoomEvents(@RequestParam String seed, @RequestParam String playerSessionId) {
+        return sessionService.subscribeToRoomEvents(seed, playerSessionId);
+    }
+
     /**
      * Determines whether a player can rejoin a session based on their session ID.
      *
@@ -91,12 +229,35 @@ public class SessionController {
      * Retrieves a list of movie IDs that are commonly liked by both players in the specified session.
      *
      * @param playerSessionId the unique session identifier of the player for whom the common likes are being fetched
+     * @param ifNoneMatch     the ETags of the lists the client already holds, if any
      * @return a ResponseEntity containing a list of Integer values representing the IDs of movies
-     * commonly liked by both players, or an appropriate error response if the session or player is not found
+     * commonly liked by both players, a 304 Not Modified response if the list did not change since the version
+     * in If-None-Match, or an appropriate error response if the session or player is not found
      */
     @GetMapping("common-likes")
-    public ResponseEntity<List<Integer>> getCommonLikes(@RequestParam String playerSessionId) {
-        return sessionService.getCommonLikes(playerSessionId);
+    public ResponseEntity<List<Integer>> getCommonLikes(
+            @RequestParam String playerSessionId,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return sessionService.getCommonLikes(playerSessionId, ifNoneMatch);
+    }
+
+    /**
+     * Retrieves the movie IDs that became common likes of the player's session after the given version of the
+     * list, optionally waiting for the next one.
+     *
+     * @param playerSessionId the unique session identifier of the player for whom the common likes are being fetched
+     * @param generation      the generation of the version the client holds, as last returned, or null for none
+     * @param since           the version of the list the client already holds, 0 for the full list
+     * @param wait            true to hold the request until a new common like arrives or the long-poll times out
+     * @return a DeferredResult of a ResponseEntity containing the current generation and version of the list and
+     * the movie IDs added since the given version, or the whole list flagged as a resync if the given version is
+     * not valid in the current generation, or an appropriate error response if the session or player is not found
+     */
+    @GetMapping(value = "common-likes", params = "since")
+    public DeferredResult<ResponseEntity<CommonLikesResponse>> getCommonLikesSince(
+            @RequestParam String playerSessionId, @RequestParam(required = false) Integer generation,
+            @RequestParam Integer since, @RequestParam(defaultValue = "false") boolean wait) {
+        return sessionService.getCommonLikesSince(playerSessionId, generation, since, wait);
     }
 
     /**
@@ -109,4 +270,25 @@ public class SessionController {
     public ResponseEntity<Boolean> doesRoomExist(@RequestParam String seed) {
         return sessionService.doesRoomExist(seed);
     }
+
+    private ResponseEntity<ResponseBodyEmitter> toProjectedStreamingResponse(
+            ResponseEntity<ResponseBodyEmitter> response, MovieProjection projection) {
+        if (projection == null || !projection.isCompact()) {
+            return response;
+        }
+        return ResponseEntity.status(response.getStatusCode())
+                .headers(response.getHeaders())
+                .header(IMAGE_BASE_URL_HEADER, TMDB_IMAGE_BASE_URL)
+                .body(response.getBody());
+    }
+
+    private ResponseEntity<List<Map<String, Object>>> toProjectedResponse(ResponseEntity<List<MovieResponse>> response,
+                                                                          MovieProjection projection) {
+        ResponseEntity.BodyBuilder bodyBuilder = ResponseEntity.status(response.getStatusCode())
+                .headers(response.getHeaders());
+        if (projection.isCompact()) {
+            bodyBuilder.header(IMAGE_BASE_URL_HEADER, TMDB_IMAGE_BASE_URL);
+        }
+        return bodyBuilder.body(projection.project(response.getBody()));
+    }
 }
@@ -1,18 +1,28 @@
 package com.andreea.twoplayermoviepicker.controllers;
 
+import com.andreea.twoplayermoviepicker.request_models.TrailersRequest;
+import com.andreea.twoplayermoviepicker.response_models.CacheStatsResponse;
 import com.andreea.twoplayermoviepicker.response_models.GenreResponse;
 import com.andreea.twoplayermoviepicker.response_models.ProviderResponse;
+import com.andreea.twoplayermoviepicker.response_models.TmdbGovernorStatsResponse;
+import com.andreea.twoplayermoviepicker.services.ReferenceDataService;
 import com.andreea.twoplayermoviepicker.services.TmdbService;
 import info.movito.themoviedbapi.tools.TmdbException;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 @RequiredArgsConstructor
 
@@ -21,43 +31,85 @@ import java.util.List;
 @RequestMapping("/api/v1/tmdb")
 public class TmdbController {
     private final TmdbService tmdbService;
+    private final ReferenceDataService referenceDataService;
 
     /**
      * Retrieves the YouTube trailer for a specific movie in the specified language.
      *
      * @param movieId  the unique identifier of the movie for which the trailer is to be fetched
      * @param language the language code in which the trailer is requested
-     * @return a ResponseEntity containing the URL of the YouTube trailer as a string,
+     * @return a future of a ResponseEntity containing the URL of the YouTube trailer as a string,
      * or an appropriate error response if the trailer cannot be found
      */
     @GetMapping("youtube-trailer/{movieId}/{language}")
-    public ResponseEntity<String> getYoutubeTrailer(@PathVariable Integer movieId, @PathVariable String language) throws TmdbException {
+    public CompletableFuture<ResponseEntity<String>> getYoutubeTrailer(@PathVariable Integer movieId, @PathVariable String language) {
         return tmdbService.getYoutubeTrailer(movieId, language);
     }
 
+    /**
+     * Retrieves the YouTube trailers of several movies in a single request.
+     *
+     * @param request the request containing the language and the IDs of the movies whose trailers are requested
+     * @return a future of a ResponseEntity containing a map from movie ID to YouTube trailer URL,
+     * where movies without a suitable trailer are left out
+     */
+    @PostMapping("youtube-trailers")
+    public CompletableFuture<ResponseEntity<Map<Integer, String>>> getYoutubeTrailers(@RequestBody TrailersRequest request) {
+        return tmdbService.getYoutubeTrailers(request);
+    }
+
     /**
      * Retrieves a list of watch providers available for movies based on the specified region and language.
      *
      * @param watchRegion the region code (e.g., country ISO code) for which the watch provider data is requested
      * @param language    the language code in which the data is requested
+     * @param ifNoneMatch the ETag of the providers already held by the client, if any
      * @return a ResponseEntity containing a list of ProviderResponse objects,
-     * which include details such as the provider's name, logo path, and ID
+     * which include details such as the provider's name, logo path, and ID,
+     * or a 304 Not Modified response if the client's copy is current
      * @throws TmdbException if an error occurs while fetching the watch provider data
      */
     @GetMapping("watch-providers/{watchRegion}/{language}")
-    public ResponseEntity<List<ProviderResponse>> getWatchProviders(@PathVariable String watchRegion, @PathVariable String language) throws TmdbException {
-        return tmdbService.getWatchProviders(watchRegion, language);
+    public ResponseEntity<List<ProviderResponse>> getWatchProviders(@PathVariable String watchRegion, @PathVariable String language,
+                                                                    @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) throws TmdbException {
+        return referenceDataService.getWatchProviders(watchRegion, language, ifNoneMatch);
     }
 
     /**
      * Retrieves a list of movie genres.
      *
+     * @param ifNoneMatch the ETag of the genres already held by the client, if any
      * @return a ResponseEntity containing a list of GenreResponse objects,
-     * each representing a movie genre with its corresponding ID and name
+     * each representing a movie genre with its corresponding ID and name,
+     * or a 304 Not Modified response if the client's copy is current
      * @throws TmdbException if an error occurs while fetching the genres
      */
     @GetMapping("genres")
-    public ResponseEntity<List<GenreResponse>> getGenresResponse() throws TmdbException {
-        return tmdbService.getGenresResponse();
+    public ResponseEntity<List<GenreResponse>> getGenresResponse(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) throws TmdbException {
+        return referenceDataService.getGenres(ifNoneMatch);
+    }
+
+    /**
+     * Retrieves the statistics of the in-memory TMDB caches, used to size them against the TMDB quota and heap.
+     *
+     * @return a ResponseEntity containing a list of CacheStatsResponse objects,
+     * each holding the size, hit, miss and eviction counters of one cache, and the number of gets that joined
+     * a load already in flight instead of calling TMDB again
+     */
+    @GetMapping("cache-stats")
+    public ResponseEntity<List<CacheStatsResponse>> getCacheStats() {
+        return tmdbService.getCacheStats();
+    }
+
+    /**
+     * Retrieves the state of the governor guarding outbound TMDB calls.
+     *
+     * @return a ResponseEntity containing the circuit breaker state, the permitted, rejected and failed call counters,
+     * and the queue time and latency of the TMDB calls
+     */
+    @GetMapping("governor-stats")
+    public ResponseEntity<TmdbGovernorStatsResponse> getGovernorStats() {
+        return tmdbService.getGovernorStats();
     }
 }
@@ -0,0 +1,9 @@
+package com.andreea.twoplayermoviepicker.exceptions;
+
+import static java.lang.String.format;
+
+public class RoomUnavailableException extends RuntimeException {
+    public RoomUnavailableException(String roomCode) {
+        super(format("Room %s can not be loaded until its pending changes are saved", roomCode));
+    }
+}
@@ -0,0 +1,20 @@
+package com.andreea.twoplayermoviepicker.exceptions;
+
+import info.movito.themoviedbapi.tools.TmdbException;
+import lombok.Getter;
+
+import static java.lang.String.format;
+
+@Getter
+public class TmdbStatusException extends TmdbException {
+    private final int statusCode;
+
+    public TmdbStatusException(int statusCode, String path) {
+        super(format("TMDB responded with status %s to %s", statusCode, path));
+        this.statusCode = statusCode;
+    }
+
+    public boolean isNotFound() {
+        return statusCode == 404;
+    }
+}
@@ -0,0 +1,17 @@
+package com.andreea.twoplayermoviepicker.exceptions;
+
+import lombok.Getter;
+
+import java.time.Duration;
+
+import static java.lang.String.format;
+
+@Getter
+public class TmdbUnavailableException extends RuntimeException {
+    private final Duration retryAfter;
+
+    public TmdbUnavailableException(String operation, String reason, Duration retryAfter) {
+        super(format("TMDB call %s was rejected: %s", operation, reason));
+        this.retryAfter = retryAfter;
+    }
+}
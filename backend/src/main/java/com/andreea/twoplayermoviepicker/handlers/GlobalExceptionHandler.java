@@ -4,12 +4,15 @@ import com.andreea.twoplayermoviepicker.exceptions.InvalidSeedException;
 import com.andreea.twoplayermoviepicker.exceptions.MovieNotFoundException;
 import com.andreea.twoplayermoviepicker.exceptions.PlayerNotFoundException;
 import com.andreea.twoplayermoviepicker.exceptions.PlayerSessionExistsException;
+import com.andreea.twoplayermoviepicker.exceptions.RoomUnavailableException;
 import com.andreea.twoplayermoviepicker.exceptions.SeedExistsException;
 import com.andreea.twoplayermoviepicker.exceptions.SeedNotFoundException;
 import com.andreea.twoplayermoviepicker.exceptions.SessionNotFoundException;
+import com.andreea.twoplayermoviepicker.exceptions.TmdbUnavailableException;
 import com.andreea.twoplayermoviepicker.exceptions.TooManyPlayersException;
 import info.movito.themoviedbapi.tools.TmdbException;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -48,6 +51,23 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(ex.getMessage());
     }
 
+    @ExceptionHandler(TmdbUnavailableException.class)
+    public ResponseEntity<String> handleTmdbUnavailableException(TmdbUnavailableException ex) {
+        log.warn("TMDB unavailable: {}", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfter().toSeconds()))
+                .body(ex.getMessage());
+    }
+
+    @ExceptionHandler(RoomUnavailableException.class)
+    public ResponseEntity<String> handleRoomUnavailableException(RoomUnavailableException ex) {
+        log.warn("Room unavailable: {}", ex.getMessage());
+        // Pending room changes are retried on every flush, once a second
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(ex.getMessage());
+    }
+
     @ExceptionHandler(SeedNotFoundException.class)
     public ResponseEntity<String> handleSeedDoesNotExistException(SeedNotFoundException ex) {
         log.warn("Seed does not exist: {}", ex.getMessage());
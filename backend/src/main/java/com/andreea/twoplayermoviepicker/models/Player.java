@@ -9,7 +9,6 @@ import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
-import jakarta.persistence.Transient;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -17,9 +16,6 @@ import lombok.NoArgsConstructor;
 import org.hibernate.annotations.ColumnDefault;
 
 import java.time.LocalDateTime;
-import java.util.Arrays;
-import java.util.HashSet;
-import java.util.Set;
 
 @Entity
 @Table(name = "players")
@@ -40,31 +36,12 @@ public class Player {
     @ManyToOne(fetch = FetchType.LAZY)
     private Session session;
 
-    @Column(name = "likes")
-    private String likesString;
-
-    @Transient
-    public Set<String> getLikes() {
-        if (likesString == null || likesString.isEmpty()) {
-            return new HashSet<>();
-        }
-        return new HashSet<>(Arrays.asList(likesString.split(",")));
-    }
-
-    @Transient
-    public void setLikes(Set<String> sequence) {
-        this.likesString = String.join(",", sequence);
-    }
-
-    public void addToLikes(String value) {
-        Set<String> current = getLikes();
-        current.add(value);
-        setLikes(current);
-    }
-
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
 
     @ColumnDefault("0")
     private Integer seedIndex;
+
+    @ColumnDefault("0")
+    private Long lastSwipeSequence;
 }
@@ -0,0 +1,30 @@
+package com.andreea.twoplayermoviepicker.models;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "player_likes")
+@IdClass(PlayerLikeId.class)
+
+@Builder
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PlayerLike {
+    @Id
+    private Integer playerId;
+
+    @Id
+    private Integer movieId;
+
+    private LocalDateTime createdAt;
+}
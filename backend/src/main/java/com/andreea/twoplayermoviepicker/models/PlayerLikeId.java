@@ -0,0 +1,15 @@
+package com.andreea.twoplayermoviepicker.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PlayerLikeId implements Serializable {
+    private Integer playerId;
+    private Integer movieId;
+}
@@ -33,49 +33,12 @@ public class Session {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Integer id;
 
-    @Column(name = "seed_sequence")
-    private String seedSequenceString;
+    @Column(name = "room_code", unique = true, length = 4)
+    private String roomCode;
 
-    @Transient
-    public List<String> getSeedSequence() {
-        if (seedSequenceString == null || seedSequenceString.isEmpty()) {
-            return new ArrayList<>();
-        }
-        return new ArrayList<>(Arrays.asList(seedSequenceString.split(",")));
-    }
-
-    @Transient
-    public void setSeedSequence(List<String> sequence) {
-        this.seedSequenceString = String.join(",", sequence);
-    }
-
-    public void addToSeedSequence(String value) {
-        List<String> current = getSeedSequence();
-        current.add(value);
-        setSeedSequence(current);
-    }
-
-    @Column(name = "common_likes")
-    private String commonLikesString;
-
-    @Transient
-    public Set<String> getCommonLikes() {
-        if (commonLikesString == null || commonLikesString.isEmpty()) {
-            return new HashSet<>();
-        }
-        return new HashSet<>(Arrays.asList(commonLikesString.split(",")));
-    }
-
-    @Transient
-    public void setCommonLikes(Set<String> sequence) {
-        this.commonLikesString = String.join(",", sequence);
-    }
-
-    public void addToCommonLikes(String value) {
-        Set<String> current = getCommonLikes();
-        current.add(value);
-        setCommonLikes(current);
-    }
+    // Seeds live in session_seeds; the count only grows through RoomWriteBehind
+    @Column(name = "seed_count", updatable = false)
+    private Integer seedCount;
 
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
@@ -0,0 +1,32 @@
+package com.andreea.twoplayermoviepicker.models;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "session_common_likes")
+@IdClass(SessionCommonLikeId.class)
+
+@Builder
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SessionCommonLike {
+    @Id
+    private Integer sessionId;
+
+    @Id
+    private Integer movieId;
+
+    private Integer version;
+
+    private LocalDateTime createdAt;
+}
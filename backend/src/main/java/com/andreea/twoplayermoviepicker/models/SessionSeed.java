@@ -0,0 +1,28 @@
+package com.andreea.twoplayermoviepicker.models;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Entity
+@Table(name = "session_seeds")
+@IdClass(SessionSeedId.class)
+
+@Builder
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SessionSeed {
+    @Id
+    private Integer sessionId;
+
+    @Id
+    private Integer seedIndex;
+
+    private Integer seed;
+}
@@ -0,0 +1,14 @@
+package com.andreea.twoplayermoviepicker.repositories;
+
+import com.andreea.twoplayermoviepicker.models.PlayerLike;
+import com.andreea.twoplayermoviepicker.models.PlayerLikeId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface PlayerLikeRepository extends JpaRepository<PlayerLike, PlayerLikeId> {
+    List<PlayerLike> findByPlayerIdIn(Collection<Integer> playerIds);
+}
@@ -2,6 +2,7 @@ package com.andreea.twoplayermoviepicker.repositories;
 
 import com.andreea.twoplayermoviepicker.models.Player;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
@@ -9,4 +10,9 @@ import java.util.Optional;
 @Repository
 public interface PlayerRepository extends JpaRepository<Player, Integer> {
     Optional<Player> findByPlayerSessionId(String playerSessionId);
+
+    boolean existsByPlayerSessionId(String playerSessionId);
+
+    @Query("SELECT p FROM Player p LEFT JOIN FETCH p.session WHERE p.playerSessionId = :playerSessionId")
+    Optional<Player> findWithSessionByPlayerSessionId(String playerSessionId);
 }
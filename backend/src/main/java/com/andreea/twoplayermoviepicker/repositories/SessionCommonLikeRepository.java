@@ -0,0 +1,16 @@
+package com.andreea.twoplayermoviepicker.repositories;
+
+import com.andreea.twoplayermoviepicker.models.SessionCommonLike;
+import com.andreea.twoplayermoviepicker.models.SessionCommonLikeId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface SessionCommonLikeRepository extends JpaRepository<SessionCommonLike, SessionCommonLikeId> {
+    @Query(value = "SELECT movie_id FROM session_common_likes WHERE session_id = :sessionId ORDER BY version",
+            nativeQuery = true)
+    List<Integer> findMovieIds(Integer sessionId);
+}
@@ -5,14 +5,18 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface SessionRepository extends JpaRepository<Session, Integer> {
-    @Query(value = "SELECT id FROM sessions WHERE split_part(seed_sequence, ',', 1) = :seed", nativeQuery = true)
-    Optional<Integer> findSessionIdByFirstSeed(String seed);
+    Optional<Session> findByRoomCode(String roomCode);
 
+    @Query("SELECT s FROM Session s LEFT JOIN FETCH s.players WHERE s.roomCode = :roomCode")
+    Optional<Session> findWithPlayersByRoomCode(String roomCode);
 
-    @Query(value = "SELECT split_part(seed_sequence, ',', -1) FROM sessions WHERE id = :id", nativeQuery = true)
-    Optional<String> findLastSeedInSequenceById(Integer id);
+    boolean existsByRoomCode(String roomCode);
+
+    @Query("SELECT s.roomCode FROM Session s WHERE s.roomCode IS NOT NULL")
+    List<String> findAllRoomCodes();
 }
@@ -0,0 +1,23 @@
+package com.andreea.twoplayermoviepicker.repositories;
+
+import com.andreea.twoplayermoviepicker.models.SessionSeed;
+import com.andreea.twoplayermoviepicker.models.SessionSeedId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+@Repository
+public interface SessionSeedRepository extends JpaRepository<SessionSeed, SessionSeedId> {
+    @Query(value = "SELECT seed FROM session_seeds WHERE session_id = :sessionId ORDER BY seed_index", nativeQuery = true)
+    List<Integer> findSeeds(Integer sessionId);
+
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO session_seeds (session_id, seed_index, seed) VALUES (:sessionId, :seedIndex, :seed) " +
+            "ON CONFLICT DO NOTHING", nativeQuery = true)
+    int insertIfAbsent(Integer sessionId, Integer seedIndex, Integer seed);
+}
@@ -0,0 +1,8 @@
+package com.andreea.twoplayermoviepicker.request_models;
+
+import java.util.List;
+
+public record SwipeBatchRequest(String seed,
+                                String playerSessionId,
+                                List<SwipeRequest> swipes) {
+}
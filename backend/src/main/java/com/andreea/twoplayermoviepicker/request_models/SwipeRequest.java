@@ -0,0 +1,6 @@
+package com.andreea.twoplayermoviepicker.request_models;
+
+public record SwipeRequest(Long sequence,
+                           SwipeType type,
+                           Integer movieId) {
+}
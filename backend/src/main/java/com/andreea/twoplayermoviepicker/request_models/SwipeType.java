@@ -0,0 +1,6 @@
+package com.andreea.twoplayermoviepicker.request_models;
+
+public enum SwipeType {
+    LIKE,
+    SKIP
+}
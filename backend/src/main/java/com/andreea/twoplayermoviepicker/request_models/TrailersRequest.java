@@ -0,0 +1,7 @@
+package com.andreea.twoplayermoviepicker.request_models;
+
+import java.util.List;
+
+public record TrailersRequest(String language,
+                              List<Integer> movieIds) {
+}
@@ -0,0 +1,11 @@
+package com.andreea.twoplayermoviepicker.response_models;
+
+import lombok.Builder;
+
+import java.util.List;
+
+@Builder
+public record BootstrapResponse(Boolean canPlayerRejoin, String roomCode, List<GenreResponse> genres,
+                                String genresETag, List<ProviderResponse> watchProviders,
+                                String watchProvidersETag) {
+}
@@ -0,0 +1,24 @@
+package com.andreea.twoplayermoviepicker.response_models;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import lombok.Builder;
+
+@Builder
+public record CacheStatsResponse(String name, Long size, Long hitCount, Long missCount, Double hitRate,
+                                 Long evictionCount, Long loadFailureCount, Double averageLoadPenaltyMillis,
+                                 Long coalescedLoadCount) {
+    public static CacheStatsResponse fromCacheStats(String name, Long size, CacheStats cacheStats,
+                                                    Long coalescedLoadCount) {
+        return CacheStatsResponse.builder()
+                .name(name)
+                .size(size)
+                .hitCount(cacheStats.hitCount())
+                .missCount(cacheStats.missCount())
+                .hitRate(cacheStats.hitRate())
+                .evictionCount(cacheStats.evictionCount())
+                .loadFailureCount(cacheStats.loadFailureCount())
+                .averageLoadPenaltyMillis(cacheStats.averageLoadPenalty() / 1_000_000)
+                .coalescedLoadCount(coalescedLoadCount)
+                .build();
+    }
+}
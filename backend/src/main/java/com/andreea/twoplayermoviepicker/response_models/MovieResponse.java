@@ -1,6 +1,7 @@
 package com.andreea.twoplayermoviepicker.response_models;
 
 import info.movito.themoviedbapi.model.core.Language;
+import info.movito.themoviedbapi.model.core.Movie;
 import info.movito.themoviedbapi.model.movies.MovieDb;
 import lombok.Builder;
 
@@ -15,7 +16,33 @@ public record MovieResponse(String backdropUrl, List<GenreResponse> genres, Inte
                             Double popularity, String posterUrl, String releaseDate, Integer runtime,
                             List<String> spokenLanguages, String status, String tagline, String title, String tmdbUrl,
                             String youtubeTrailer, Double voteAverage, Integer voteCount) {
+    /**
+     * Builds a placeholder from the entry of a movie on a discover page, which lacks the details only the movie
+     * endpoint returns, such as its genres, runtime and trailer.
+     *
+     * @param movie the discover entry of the movie
+     * @return the movie as far as its discover entry describes it
+     */
+    public static MovieResponse fromMovie(Movie movie) {
+        return MovieResponse.builder()
+                .backdropUrl(movie.getBackdropPath() != null ? TMDB_IMAGE_BASE_URL.concat(movie.getBackdropPath()) : null)
+                .id(movie.getId())
+                .overview(movie.getOverview())
+                .popularity(movie.getPopularity())
+                .posterUrl(movie.getPosterPath() != null ? TMDB_IMAGE_BASE_URL.concat(movie.getPosterPath()) : null)
+                .releaseDate(movie.getReleaseDate())
+                .title(movie.getTitle())
+                .tmdbUrl(TMDB_MOVIE_PAGE_BASE_URL.concat(String.valueOf(movie.getId())))
+                .voteAverage(movie.getVoteAverage())
+                .voteCount(movie.getVoteCount())
+                .build();
+    }
+
     public static MovieResponse fromMovie(MovieDb movieDb) {
+        return fromMovie(movieDb, null);
+    }
+
+    public static MovieResponse fromMovie(MovieDb movieDb, String youtubeTrailer) {
         return MovieResponse.builder()
                 .backdropUrl(movieDb.getBackdropPath() != null ? TMDB_IMAGE_BASE_URL.concat(movieDb.getBackdropPath()) : null)
                 .genres(movieDb.getGenres() != null ? movieDb.getGenres().stream().map(GenreResponse::fromGenre).toList() : null)
@@ -33,6 +60,7 @@ public record MovieResponse(String backdropUrl, List<GenreResponse> genres, Inte
                 .tagline(movieDb.getTagline())
                 .title(movieDb.getTitle())
                 .tmdbUrl(TMDB_MOVIE_PAGE_BASE_URL.concat(String.valueOf(movieDb.getId())))
+                .youtubeTrailer(youtubeTrailer)
                 .voteAverage(movieDb.getVoteAverage())
                 .voteCount(movieDb.getVoteCount())
                 .build();
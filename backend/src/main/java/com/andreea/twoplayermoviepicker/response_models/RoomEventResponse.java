@@ -0,0 +1,7 @@
+package com.andreea.twoplayermoviepicker.response_models;
+
+import lombok.Builder;
+
+@Builder
+public record RoomEventResponse(String playerSessionId, Integer movieId, Integer seedIndex) {
+}
@@ -0,0 +1,9 @@
+package com.andreea.twoplayermoviepicker.response_models;
+
+import lombok.Builder;
+
+import java.util.List;
+
+@Builder
+public record SwipeBatchResponse(Long lastSwipeSequence, List<Integer> matchedMovieIds) {
+}
@@ -0,0 +1,9 @@
+package com.andreea.twoplayermoviepicker.response_models;
+
+import lombok.Builder;
+
+@Builder
+public record TmdbGovernorStatsResponse(String circuitState, Long permittedCalls, Long rejectedCalls,
+                                        Long failedCalls, Integer availableConcurrency, Double averageQueueMillis,
+                                        Double maxQueueMillis, Double averageLatencyMillis, Double maxLatencyMillis) {
+}
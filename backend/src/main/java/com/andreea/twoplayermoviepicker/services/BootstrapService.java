@@ -0,0 +1,98 @@
+package com.andreea.twoplayermoviepicker.services;
+
+import com.andreea.twoplayermoviepicker.response_models.BootstrapResponse;
+import com.andreea.twoplayermoviepicker.response_models.GenreResponse;
+import com.andreea.twoplayermoviepicker.response_models.ProviderResponse;
+import info.movito.themoviedbapi.tools.TmdbException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+
+import static com.andreea.twoplayermoviepicker.utils.UtilityMethods.isETagMatching;
+
+@Slf4j
+@Service
+public class BootstrapService {
+    private final SessionService sessionService;
+    private final ReferenceDataService referenceDataService;
+    private final ExecutorService tmdbExecutor;
+
+    public BootstrapService(SessionService sessionService, ReferenceDataService referenceDataService,
+                            @Qualifier("tmdbExecutor") ExecutorService tmdbExecutor) {
+        this.sessionService = sessionService;
+        this.referenceDataService = referenceDataService;
+        this.tmdbExecutor = tmdbExecutor;
+    }
+
+    /**
+     * Gathers everything the main page needs on load. The genres and the watch providers are read from memory,
+     * or fetched from TMDB the first time, while the player's session is looked up in the database. A part that
+     * can not be loaded is left empty rather than failing the page.
+     * <p>
+     * The response holds the player's rejoin state, so it is not cached. Instead, the client sends the ETags of the
+     * genres and watch providers it already holds, and a list whose ETag still matches is left out of the response.
+     *
+     * @param playerSessionId    the session ID of the player opening the main page
+     * @param watchRegion        the region for which to retrieve watch providers (e.g., "US", "UK")
+     * @param language           the language in which the watch provider information should be retrieved
+     * @param genresETag         the ETag of the genres already held by the client, may be null
+     * @param watchProvidersETag the ETag of the watch providers already held by the client, may be null
+     * @return a future of a ResponseEntity containing whether the player can rejoin a room, the room code of that
+     * room, and the movie genres and the watch providers of the region along with their ETags
+     */
+    public CompletableFuture<ResponseEntity<BootstrapResponse>> getBootstrap(String playerSessionId,
+                                                                              String watchRegion, String language,
+                                                                              String genresETag,
+                                                                              String watchProvidersETag) {
+        CompletableFuture<ReferenceDataService.ReferenceData<GenreResponse>> genres =
+                loadAsync("genres", referenceDataService::findGenres);
+        CompletableFuture<ReferenceDataService.ReferenceData<ProviderResponse>> watchProviders =
+                loadAsync("watch providers", () -> referenceDataService.findWatchProviders(watchRegion, language));
+        Optional<String> resumableRoomCode = sessionService.findResumableRoomCode(playerSessionId);
+
+        return genres.thenCombine(watchProviders, (genreData, providerData) -> ResponseEntity.ok()
+                .cacheControl(CacheControl.noStore())
+                .body(BootstrapResponse.builder()
+                        .canPlayerRejoin(resumableRoomCode.isPresent())
+                        .roomCode(resumableRoomCode.orElse(null))
+                        .genres(valuesUnlessMatching(genreData, genresETag))
+                        .genresETag(genreData.eTag())
+                        .watchProviders(valuesUnlessMatching(providerData, watchProvidersETag))
+                        .watchProvidersETag(providerData.eTag())
+                        .build()));
+    }
+
+    private <T> CompletableFuture<ReferenceDataService.ReferenceData<T>> loadAsync(String referenceDataName,
+                                                                                   ReferenceDataLoader<T> loader) {
+        return CompletableFuture.supplyAsync(() -> {
+                    try {
+                        return loader.load();
+                    } catch (TmdbException e) {
+                        throw new CompletionException(e);
+                    }
+                }, tmdbExecutor)
+                .exceptionally(e -> {
+                    log.warn("Failed to load {} for the main page: {}", referenceDataName, e.getMessage());
+                    return new ReferenceDataService.ReferenceData<>(List.of(), null);
+                });
+    }
+
+    private static <T> List<T> valuesUnlessMatching(ReferenceDataService.ReferenceData<T> referenceData,
+                                                    String knownETag) {
+        return referenceData.eTag() != null && isETagMatching(knownETag, referenceData.eTag()) ?
+                null : referenceData.values();
+    }
+
+    @FunctionalInterface
+    private interface ReferenceDataLoader<T> {
+        ReferenceDataService.ReferenceData<T> load() throws TmdbException;
+    }
+}
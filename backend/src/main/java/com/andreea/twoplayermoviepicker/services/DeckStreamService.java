@@ -0,0 +1,155 @@
+package com.andreea.twoplayermoviepicker.services;
+
+import com.andreea.twoplayermoviepicker.exceptions.MovieNotFoundException;
+import com.andreea.twoplayermoviepicker.response_models.MovieResponse;
+import com.andreea.twoplayermoviepicker.utils.MovieProjection;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static com.andreea.twoplayermoviepicker.utils.ConfigVariables.DECK_FETCH_TIMEOUT;
+import static com.andreea.twoplayermoviepicker.utils.ConfigVariables.DECK_STREAM_TIMEOUT;
+import static java.lang.String.format;
+
+@Slf4j
+@Service
+public class DeckStreamService {
+    private final ObjectMapper objectMapper;
+    private final ExecutorService tmdbExecutor;
+    private final TmdbService tmdbService;
+
+    public DeckStreamService(ObjectMapper objectMapper, @Qualifier("tmdbExecutor") ExecutorService tmdbExecutor,
+                             TmdbService tmdbService) {
+        this.objectMapper = objectMapper;
+        this.tmdbExecutor = tmdbExecutor;
+        this.tmdbService = tmdbService;
+    }
+
+    /**
+     * Streams a deck as newline-delimited JSON, one {@link MovieResponse} per line. Each movie is written as soon
+     * as its details and those of the movies before it resolve, so the order of the deck is kept and the first
+     * card reaches the client after a single TMDB round-trip. Like a collected deck, movies that fail or are still
+     * pending after {@code DECK_FETCH_TIMEOUT} are written as their placeholders, so every player of a seed gets the
+     * same deck. Placeholders are held back until a movie of the deck resolves, so a deck that can not be fetched
+     * at all writes nothing.
+     * <p>
+     * The response is committed before the deck resolves, so a deck that fails, or has no movies, ends the stream
+     * with an error instead of an error status, and is not reported as delivered.
+     *
+     * @param deck        a future of the movies of the deck, in seed-determined order
+     * @param seed        the seed of the deck
+     * @param projection  the fields each movie is written with, or null to write whole movies
+     * @param onDelivered run once every movie of the deck was written
+     * @return the emitter streaming the deck
+     */
+    public ResponseBodyEmitter stream(CompletableFuture<List<TmdbService.DeckMovie>> deck, String seed,
+                                      MovieProjection projection, Runnable onDelivered) {
+        ResponseBodyEmitter emitter = new ResponseBodyEmitter(DECK_STREAM_TIMEOUT.toMillis());
+        deck.thenCompose(deckMovies -> streamInOrder(new DeckWriter(emitter, projection), deckMovies, seed))
+                .whenComplete((ignored, error) -> {
+                    if (error != null) {
+                        Throwable cause = error instanceof CompletionException && error.getCause() != null ?
+                                error.getCause() : error;
+                        log.warn("Deck stream ended early: {}", cause.getMessage());
+                        emitter.completeWithError(cause);
+                        return;
+                    }
+                    emitter.complete();
+                    onDelivered.run();
+                });
+        return emitter;
+    }
+
+    private CompletableFuture<Void> streamInOrder(DeckWriter writer, List<TmdbService.DeckMovie> deckMovies,
+                                                  String seed) {
+        CompletableFuture<Void> deadline = new CompletableFuture<Void>()
+                .completeOnTimeout(null, DECK_FETCH_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+
+        CompletableFuture<Void> written = CompletableFuture.completedFuture(null);
+        for (TmdbService.DeckMovie deckMovie : deckMovies) {
+            written = written
+                    .thenCompose(ignored -> CompletableFuture.anyOf(deckMovie.details(), deadline)
+                            .handle((result, error) -> null))
+                    // Writes one movie at a time, off the timer thread when the deadline ended the wait
+                    .thenAcceptAsync(ignored -> writer.write(deckMovie), tmdbExecutor);
+        }
+        return written
+                .thenRun(() -> {
+                    if (!writer.isAnyResolved()) {
+                        tmdbService.checkDeckFetched(deckMovies, seed);
+                        writer.writeHeldPlaceholders();
+                    }
+                    if (writer.getWrittenMovies() == 0) {
+                        throw new MovieNotFoundException(format("No movies found for seed %s", seed));
+                    }
+                })
+                .whenComplete((ignored, error) -> deadline.cancel(false));
+    }
+
+    /**
+     * Writes the movies of one deck. Its methods are called one after the other by the stages of the stream.
+     */
+    private class DeckWriter {
+        private final ResponseBodyEmitter emitter;
+        private final MovieProjection projection;
+        private final List<MovieResponse> heldPlaceholders = new ArrayList<>();
+        private boolean anyResolved;
+        private int writtenMovies;
+
+        private DeckWriter(ResponseBodyEmitter emitter, MovieProjection projection) {
+            this.emitter = emitter;
+            this.projection = projection;
+        }
+
+        private void write(TmdbService.DeckMovie deckMovie) {
+            if (deckMovie.isResolved()) {
+                anyResolved = true;
+                writeHeldPlaceholders();
+                send(deckMovie.details().resultNow());
+            } else if (anyResolved) {
+                send(deckMovie.placeholder());
+            } else {
+                heldPlaceholders.add(deckMovie.placeholder());
+            }
+        }
+
+        private void writeHeldPlaceholders() {
+            heldPlaceholders.forEach(this::send);
+            heldPlaceholders.clear();
+        }
+
+        private boolean isAnyResolved() {
+            return anyResolved;
+        }
+
+        private int getWrittenMovies() {
+            return writtenMovies;
+        }
+
+        private void send(MovieResponse movieResponse) {
+            Object line = projection != null ? projection.project(movieResponse) : movieResponse;
+            try {
+                emitter.send(objectMapper.writeValueAsString(line) + "\n", MediaType.APPLICATION_NDJSON);
+            } catch (JsonProcessingException e) {
+                throw new CompletionException(e);
+            } catch (IOException e) {
+                // The client went away, so the rest of the deck is not written
+                throw new UncheckedIOException(e);
+            }
+            writtenMovies++;
+        }
+    }
+}
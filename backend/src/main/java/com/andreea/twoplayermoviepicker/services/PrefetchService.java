@@ -0,0 +1,108 @@
+package com.andreea.twoplayermoviepicker.services;
+
+import com.andreea.twoplayermoviepicker.request_models.RoomRequest;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static com.andreea.twoplayermoviepicker.utils.ConfigVariables.MAX_PREFETCHES_PER_ROOM;
+import static com.andreea.twoplayermoviepicker.utils.ConfigVariables.PREFETCH_ROOM_IDLE_AFTER;
+
+@Slf4j
+@Service
+public class PrefetchService {
+    private final TmdbService tmdbService;
+    private final ExecutorService tmdbExecutor;
+    private final Map<String, RoomPrefetches> prefetchesByRoom = new ConcurrentHashMap<>();
+
+    public PrefetchService(TmdbService tmdbService, @Qualifier("tmdbExecutor") ExecutorService tmdbExecutor) {
+        this.tmdbService = tmdbService;
+        this.tmdbExecutor = tmdbExecutor;
+    }
+
+    /**
+     * Warms the TMDB caches with the deck that follows the one just served in a room. The seed chain is
+     * deterministic, so the next seed is known in advance and the next fetch-more is served from memory.
+     * At most {@code MAX_PREFETCHES_PER_ROOM} prefetches run at once for a room, and a seed that is already
+     * being prefetched is not prefetched again.
+     *
+     * @param roomSeed      the first seed of the room, identifying it
+     * @param servedRequest the request, including the room's filters, of the deck that was just served
+     */
+    public void prefetchNextDeck(String roomSeed, RoomRequest servedRequest) {
+        String nextSeed = tmdbService.generateSeed(servedRequest.seed());
+        if (nextSeed == null) {
+            return;
+        }
+
+        RoomRequest nextRequest = servedRequest.toBuilder().seed(nextSeed).build();
+        // The slot is reserved while the room's entry is locked, so concurrent deck requests of a room can not start
+        // more prefetches between them than the room is allowed
+        prefetchesByRoom.compute(roomSeed, (seed, existingPrefetches) -> {
+            RoomPrefetches roomPrefetches = existingPrefetches != null ? existingPrefetches : new RoomPrefetches();
+            roomPrefetches.lastActivity = Instant.now();
+            if (roomPrefetches.inFlight.containsKey(nextSeed)) {
+                return roomPrefetches;
+            }
+            if (roomPrefetches.inFlight.size() >= MAX_PREFETCHES_PER_ROOM) {
+                log.info("Skipping prefetch of seed {} for room {}, {} prefetches already running",
+                        nextSeed, roomSeed, roomPrefetches.inFlight.size());
+                return roomPrefetches;
+            }
+            roomPrefetches.inFlight.put(nextSeed, tmdbExecutor.submit(() -> prefetch(roomSeed, nextRequest)));
+            return roomPrefetches;
+        });
+    }
+
+    /**
+     * Cancels the running prefetches of the rooms that had no activity for {@code PREFETCH_ROOM_IDLE_AFTER},
+     * so idle rooms stop using the TMDB request budget.
+     */
+    @Scheduled(fixedDelay = 1, timeUnit = TimeUnit.MINUTES)
+    public void cancelIdleRoomPrefetches() {
+        Instant idleThreshold = Instant.now().minus(PREFETCH_ROOM_IDLE_AFTER);
+        prefetchesByRoom.entrySet().removeIf(entry -> {
+            RoomPrefetches roomPrefetches = entry.getValue();
+            if (roomPrefetches.lastActivity.isAfter(idleThreshold)) {
+                return false;
+            }
+            roomPrefetches.inFlight.values().forEach(future -> future.cancel(true));
+            log.info("Cancelled {} prefetches of idle room {}", roomPrefetches.inFlight.size(), entry.getKey());
+            return true;
+        });
+    }
+
+    private void prefetch(String roomSeed, RoomRequest nextRequest) {
+        String seed = nextRequest.seed();
+        try {
+            tmdbService.getRandomMoviesFromDiscover(nextRequest).get();
+            log.info("Prefetched deck for seed {} in room {}", seed, roomSeed);
+        } catch (ExecutionException e) {
+            log.warn("Failed to prefetch deck for seed {} in room {}: {}", seed, roomSeed, e.getCause().getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            log.warn("Failed to prefetch deck for seed {} in room {}: {}", seed, roomSeed, e.getMessage());
+        } finally {
+            // A room is forgotten with its last prefetch, instead of waiting for the idle sweep to remove it
+            prefetchesByRoom.computeIfPresent(roomSeed, (room, roomPrefetches) -> {
+                roomPrefetches.inFlight.remove(seed);
+                return roomPrefetches.inFlight.isEmpty() ? null : roomPrefetches;
+            });
+        }
+    }
+
+    private static class RoomPrefetches {
+        private final Map<String, Future<?>> inFlight = new ConcurrentHashMap<>();
+        private volatile Instant lastActivity = Instant.now();
+    }
+}
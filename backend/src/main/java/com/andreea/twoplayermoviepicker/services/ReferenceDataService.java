@@ -0,0 +1,157 @@
+package com.andreea.twoplayermoviepicker.services;
+
+import com.andreea.twoplayermoviepicker.response_models.GenreResponse;
+import com.andreea.twoplayermoviepicker.response_models.ProviderResponse;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import info.movito.themoviedbapi.tools.TmdbException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static com.andreea.twoplayermoviepicker.utils.ConfigVariables.GENRES_MAX_AGE;
+import static com.andreea.twoplayermoviepicker.utils.ConfigVariables.WATCH_PROVIDERS_MAX_AGE;
+import static com.andreea.twoplayermoviepicker.utils.ConfigVariables.WATCH_PROVIDERS_MAX_ENTRIES;
+import static com.andreea.twoplayermoviepicker.utils.UtilityMethods.isETagMatching;
+import static com.andreea.twoplayermoviepicker.utils.UtilityMethods.toETag;
+
+@RequiredArgsConstructor
+
+@Slf4j
+@Service
+public class ReferenceDataService {
+    private final TmdbService tmdbService;
+    private final Cache<ProviderKey, ReferenceData<ProviderResponse>> watchProvidersCache = Caffeine.newBuilder()
+            .maximumSize(WATCH_PROVIDERS_MAX_ENTRIES)
+            .build();
+    private volatile ReferenceData<GenreResponse> genres;
+
+    /**
+     * Retrieves the movie genres from memory. The genres are loaded on startup and refreshed on a schedule,
+     * so this method only calls TMDB if the genres could not be loaded yet.
+     *
+     * @param ifNoneMatch the value of the If-None-Match request header, may be null
+     * @return a ResponseEntity containing the list of GenreResponse objects with ETag and Cache-Control headers,
+     * or a 304 Not Modified response if the client already has the current genres
+     * @throws TmdbException if the genres are not loaded yet and fetching them from TMDB fails
+     */
+    public ResponseEntity<List<GenreResponse>> getGenres(String ifNoneMatch) throws TmdbException {
+        return toResponse(currentGenres(), ifNoneMatch, GENRES_MAX_AGE);
+    }
+
+    /**
+     * Retrieves the movie genres from memory, see {@link #getGenres}.
+     *
+     * @return the list of GenreResponse objects along with its ETag
+     * @throws TmdbException if the genres are not loaded yet and fetching them from TMDB fails
+     */
+    public ReferenceData<GenreResponse> findGenres() throws TmdbException {
+        return currentGenres();
+    }
+
+    /**
+     * Retrieves the popular watch providers for a region and language from memory, fetching them from TMDB
+     * the first time the combination is requested. Known combinations are refreshed on a schedule.
+     *
+     * @param watchRegion the region for which to retrieve watch providers (e.g., "US", "UK")
+     * @param language    the language in which the watch provider information should be retrieved
+     * @param ifNoneMatch the value of the If-None-Match request header, may be null
+     * @return a ResponseEntity containing the list of ProviderResponse objects with ETag and Cache-Control headers,
+     * or a 304 Not Modified response if the client already has the current providers
+     * @throws TmdbException if the providers are not loaded yet and fetching them from TMDB fails
+     */
+    public ResponseEntity<List<ProviderResponse>> getWatchProviders(String watchRegion, String language,
+                                                                    String ifNoneMatch) throws TmdbException {
+        return toResponse(currentWatchProviders(watchRegion, language), ifNoneMatch, WATCH_PROVIDERS_MAX_AGE);
+    }
+
+    /**
+     * Retrieves the popular watch providers for a region and language from memory, see {@link #getWatchProviders}.
+     *
+     * @param watchRegion the region for which to retrieve watch providers (e.g., "US", "UK")
+     * @param language    the language in which the watch provider information should be retrieved
+     * @return the list of ProviderResponse objects along with its ETag
+     * @throws TmdbException if the providers are not loaded yet and fetching them from TMDB fails
+     */
+    public ReferenceData<ProviderResponse> findWatchProviders(String watchRegion, String language)
+            throws TmdbException {
+        return currentWatchProviders(watchRegion, language);
+    }
+
+    @Scheduled(fixedDelay = 24, timeUnit = TimeUnit.HOURS)
+    public void refreshGenres() {
+        try {
+            loadGenres();
+        } catch (TmdbException | RuntimeException e) {
+            log.warn("Failed to refresh genres, keeping the previous ones: {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelay = 6, initialDelay = 6, timeUnit = TimeUnit.HOURS)
+    public void refreshWatchProviders() {
+        for (ProviderKey providerKey : List.copyOf(watchProvidersCache.asMap().keySet())) {
+            try {
+                loadWatchProviders(providerKey);
+            } catch (TmdbException | RuntimeException e) {
+                log.warn("Failed to refresh watch providers for region {} and language {}, keeping the previous ones: {}",
+                        providerKey.watchRegion(), providerKey.language(), e.getMessage());
+            }
+        }
+    }
+
+    private ReferenceData<GenreResponse> currentGenres() throws TmdbException {
+        ReferenceData<GenreResponse> currentGenres = genres;
+        return currentGenres != null ? currentGenres : loadGenres();
+    }
+
+    private ReferenceData<ProviderResponse> currentWatchProviders(String watchRegion, String language)
+            throws TmdbException {
+        ProviderKey providerKey = new ProviderKey(watchRegion, language);
+        ReferenceData<ProviderResponse> watchProviders = watchProvidersCache.getIfPresent(providerKey);
+        return watchProviders != null ? watchProviders : loadWatchProviders(providerKey);
+    }
+
+    private ReferenceData<GenreResponse> loadGenres() throws TmdbException {
+        List<GenreResponse> genreResponses = tmdbService.fetchGenres();
+        ReferenceData<GenreResponse> loadedGenres = new ReferenceData<>(genreResponses, toETag(genreResponses));
+        genres = loadedGenres;
+        return loadedGenres;
+    }
+
+    private ReferenceData<ProviderResponse> loadWatchProviders(ProviderKey providerKey) throws TmdbException {
+        List<ProviderResponse> providerResponses =
+                tmdbService.fetchWatchProviders(providerKey.watchRegion(), providerKey.language());
+        ReferenceData<ProviderResponse> watchProviders =
+                new ReferenceData<>(providerResponses, toETag(providerResponses));
+        watchProvidersCache.put(providerKey, watchProviders);
+        return watchProviders;
+    }
+
+    private <T> ResponseEntity<List<T>> toResponse(ReferenceData<T> referenceData, String ifNoneMatch, Duration maxAge) {
+        CacheControl cacheControl = CacheControl.maxAge(maxAge).cachePublic();
+        if (isETagMatching(ifNoneMatch, referenceData.eTag())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(referenceData.eTag())
+                    .cacheControl(cacheControl)
+                    .build();
+        }
+        return ResponseEntity.ok()
+                .eTag(referenceData.eTag())
+                .cacheControl(cacheControl)
+                .body(referenceData.values());
+    }
+
+    private record ProviderKey(String watchRegion, String language) {
+    }
+
+    public record ReferenceData<T>(List<T> values, String eTag) {
+    }
+}
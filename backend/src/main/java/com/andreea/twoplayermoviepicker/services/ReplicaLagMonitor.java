@@ -0,0 +1,63 @@
+package com.andreea.twoplayermoviepicker.services;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.util.concurrent.TimeUnit;
+
+import static com.andreea.twoplayermoviepicker.utils.ConfigVariables.REPLICA_MAX_LAG;
+
+/**
+ * Measures how far the read replica is behind the primary. While the lag is above {@code REPLICA_MAX_LAG}, or the
+ * replica cannot be reached or is not streaming from the primary, read-only transactions are served by the primary
+ * instead. Reading the WAL receiver status needs the {@code pg_read_all_stats} role on the replica; without it the
+ * replica is never considered streaming, so reads stay on the primary.
+ */
+@Slf4j
+@Component
+public class ReplicaLagMonitor {
+    // A streaming replica that replayed everything it received is caught up, however old its last replayed
+    // transaction is. A disconnected or stalled replica receives nothing, so its lag is unknown and reported as NULL.
+    private static final String REPLICA_LAG_SQL = "SELECT CASE " +
+            "WHEN NOT pg_is_in_recovery() THEN 0 " +
+            "WHEN NOT EXISTS (SELECT 1 FROM pg_stat_wal_receiver WHERE status = 'streaming') THEN NULL " +
+            "WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0 " +
+            "ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) * 1000, 0) END";
+
+    private final JdbcTemplate replicaJdbcTemplate;
+    private volatile boolean replicaUsable;
+
+    public ReplicaLagMonitor(@Qualifier("replicaDataSource") DataSource replicaDataSource) {
+        this.replicaJdbcTemplate = new JdbcTemplate(replicaDataSource);
+    }
+
+    public boolean isReplicaUsable() {
+        return replicaUsable;
+    }
+
+    @Scheduled(fixedDelay = 5, timeUnit = TimeUnit.SECONDS)
+    public void checkReplicaLag() {
+        boolean wasUsable = replicaUsable;
+        try {
+            Double lagMillis = replicaJdbcTemplate.queryForObject(REPLICA_LAG_SQL, Double.class);
+            replicaUsable = lagMillis != null && lagMillis <= REPLICA_MAX_LAG.toMillis();
+            if (wasUsable && lagMillis == null) {
+                log.warn("Replica is not streaming from the primary, routing reads to the primary");
+            } else if (wasUsable && !replicaUsable) {
+                log.warn("Replica is {} ms behind the primary, routing reads to the primary", lagMillis);
+            }
+        } catch (RuntimeException e) {
+            replicaUsable = false;
+            if (wasUsable) {
+                log.warn("Replica is unreachable, routing reads to the primary: {}", e.getMessage());
+            }
+        }
+        if (!wasUsable && replicaUsable) {
+            log.info("Replica caught up, routing reads to the replica");
+        }
+    }
+}
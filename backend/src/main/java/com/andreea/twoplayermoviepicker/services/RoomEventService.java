@@ -0,0 +1,176 @@
+package com.andreea.twoplayermoviepicker.services;
+
+import com.andreea.twoplayermoviepicker.response_models.RoomEventResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static com.andreea.twoplayermoviepicker.utils.ConfigVariables.ROOM_EVENTS_MAX_PENDING;
+import static com.andreea.twoplayermoviepicker.utils.ConfigVariables.ROOM_EVENTS_TIMEOUT;
+
+@Slf4j
+@Service
+public class RoomEventService {
+    private static final String HEARTBEAT_COMMENT = "heartbeat";
+
+    private final ExecutorService roomEventExecutor;
+    private final Map<String, Map<String, RoomEventStream>> streamsByRoom = new ConcurrentHashMap<>();
+    private final Map<RoomEvent, Set<CompletableFuture<Void>>> waitersByEvent = new ConcurrentHashMap<>();
+
+    public RoomEventService(@Qualifier("roomEventExecutor") ExecutorService roomEventExecutor) {
+        this.roomEventExecutor = roomEventExecutor;
+    }
+
+    /**
+     * Opens a Server-Sent Events stream of the events of a room for one of its players. The stream is held
+     * asynchronously, so an idle subscriber costs no thread, and it is completed after {@code ROOM_EVENTS_TIMEOUT},
+     * after which the client reconnects. A player subscribing again replaces their previous stream. Events are
+     * written to each stream in order by a single sender, and a stream that falls {@code ROOM_EVENTS_MAX_PENDING}
+     * events behind is dropped.
+     *
+     * @param roomCode        the room code of the room to subscribe to
+     * @param playerSessionId the session ID of the subscribing player
+     * @return the emitter of the player's stream
+     */
+    public SseEmitter subscribe(String roomCode, String playerSessionId) {
+        SseEmitter emitter = new SseEmitter(ROOM_EVENTS_TIMEOUT.toMillis());
+        RoomEventStream[] stream = new RoomEventStream[1];
+        stream[0] = new RoomEventStream(emitter, roomEventExecutor, ROOM_EVENTS_MAX_PENDING, error -> {
+            log.info("Dropping event stream of player session id {} in room {}: {}",
+                    playerSessionId, roomCode, error.getMessage());
+            unsubscribe(roomCode, playerSessionId, stream[0]);
+        });
+        Runnable unsubscribe = () -> unsubscribe(roomCode, playerSessionId, stream[0]);
+        emitter.onCompletion(unsubscribe);
+        emitter.onTimeout(unsubscribe);
+        emitter.onError(error -> unsubscribe.run());
+
+        // Registered inside compute, so it cannot race with the last stream of the room unsubscribing
+        RoomEventStream[] previousStream = new RoomEventStream[1];
+        streamsByRoom.compute(roomCode, (code, streams) -> {
+            Map<String, RoomEventStream> roomStreams = streams != null ? streams : new ConcurrentHashMap<>();
+            previousStream[0] = roomStreams.put(playerSessionId, stream[0]);
+            return roomStreams;
+        });
+        if (previousStream[0] != null) {
+            previousStream[0].complete();
+        }
+        log.info("Player session id {} subscribed to the events of room {}", playerSessionId, roomCode);
+        return emitter;
+    }
+
+    /**
+     * Waits for the next event of the given name in a room, used by requests held open until something changes.
+     * The returned future completes on the next publish of the event, or when the room is closed; cancelling it
+     * stops the wait. An event published before this call does not complete it, so callers re-check the state
+     * they wait on after registering.
+     *
+     * @param roomCode  the room code of the room to watch
+     * @param eventName the name of the event to wait for
+     * @return a future completed on the next event of the given name in the room
+     */
+    public CompletableFuture<Void> awaitEvent(String roomCode, String eventName) {
+        RoomEvent roomEvent = new RoomEvent(roomCode, eventName);
+        CompletableFuture<Void> waiter = new CompletableFuture<>();
+        waitersByEvent.compute(roomEvent, (key, waiters) -> {
+            Set<CompletableFuture<Void>> eventWaiters = waiters != null ? waiters : ConcurrentHashMap.newKeySet();
+            eventWaiters.add(waiter);
+            return eventWaiters;
+        });
+        waiter.whenComplete((ignored, error) -> waitersByEvent.computeIfPresent(roomEvent, (key, waiters) -> {
+            waiters.remove(waiter);
+            return waiters.isEmpty() ? null : waiters;
+        }));
+        return waiter;
+    }
+
+    /**
+     * Sends an event to every subscribed player of a room.
+     *
+     * @param roomCode  the room code of the room the event happened in
+     * @param eventName the name of the event
+     * @param event     the data of the event
+     */
+    public void publishToRoom(String roomCode, String eventName, RoomEventResponse event) {
+        publish(roomCode, null, eventName, event);
+    }
+
+    /**
+     * Sends an event to the subscribed players of a room other than the player who caused it.
+     *
+     * @param roomCode        the room code of the room the event happened in
+     * @param playerSessionId the session ID of the player who caused the event
+     * @param eventName       the name of the event
+     * @param event           the data of the event
+     */
+    public void publishToPartners(String roomCode, String playerSessionId, String eventName, RoomEventResponse event) {
+        publish(roomCode, playerSessionId, eventName, event);
+    }
+
+    /**
+     * Completes the streams of a room, used once the room no longer exists.
+     *
+     * @param roomCode the room code of the closed room
+     */
+    public void closeRoom(String roomCode) {
+        Map<String, RoomEventStream> streams = streamsByRoom.remove(roomCode);
+        if (streams != null) {
+            streams.values().forEach(RoomEventStream::complete);
+        }
+        waitersByEvent.keySet().stream()
+                .filter(roomEvent -> roomEvent.roomCode().equals(roomCode))
+                .toList()
+                .forEach(this::wakeWaiters);
+    }
+
+    /**
+     * Sends a comment on every open stream, so proxies do not close idle connections and streams of clients
+     * that went away are detected and released.
+     */
+    @Scheduled(fixedDelay = 20, timeUnit = TimeUnit.SECONDS)
+    public void sendHeartbeats() {
+        streamsByRoom.values().forEach(streams -> streams.values()
+                .forEach(stream -> stream.send(SseEmitter.event().comment(HEARTBEAT_COMMENT))));
+    }
+
+    private void publish(String roomCode, String excludedPlayerSessionId, String eventName, RoomEventResponse event) {
+        wakeWaiters(new RoomEvent(roomCode, eventName));
+
+        Map<String, RoomEventStream> streams = streamsByRoom.get(roomCode);
+        if (streams == null) {
+            return;
+        }
+        streams.forEach((playerSessionId, stream) -> {
+            if (!playerSessionId.equals(excludedPlayerSessionId)) {
+                stream.send(SseEmitter.event().name(eventName).data(event));
+            }
+        });
+    }
+
+    private void wakeWaiters(RoomEvent roomEvent) {
+        Set<CompletableFuture<Void>> waiters = waitersByEvent.remove(roomEvent);
+        if (waiters != null) {
+            // Waiters resume on their own virtual threads, not on the request that published the event
+            waiters.forEach(waiter -> roomEventExecutor.execute(() -> waiter.complete(null)));
+        }
+    }
+
+    private void unsubscribe(String roomCode, String playerSessionId, RoomEventStream stream) {
+        streamsByRoom.computeIfPresent(roomCode, (code, streams) -> {
+            streams.remove(playerSessionId, stream);
+            return streams.isEmpty() ? null : streams;
+        });
+    }
+
+    private record RoomEvent(String roomCode, String eventName) {
+    }
+}
@@ -0,0 +1,102 @@
+package com.andreea.twoplayermoviepicker.services;
+
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+import static java.lang.String.format;
+
+/**
+ * The Server-Sent Events stream of one player. Events are queued and written by a single sender at a time,
+ * so they reach the client in the order they were published, and a client that stalls holds up one thread
+ * at most. Once more than {@code maxPendingEvents} events are waiting, the stream is dropped instead of
+ * queueing more.
+ */
+class RoomEventStream {
+    private final SseEmitter emitter;
+    private final Executor executor;
+    private final int maxPendingEvents;
+    private final Consumer<Exception> onDropped;
+    private final Queue<SseEmitter.SseEventBuilder> events = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendingEvents = new AtomicInteger();
+    private final AtomicBoolean draining = new AtomicBoolean();
+    private final AtomicReference<Exception> failure = new AtomicReference<>();
+    private volatile boolean completed;
+
+    RoomEventStream(SseEmitter emitter, Executor executor, int maxPendingEvents, Consumer<Exception> onDropped) {
+        this.emitter = emitter;
+        this.executor = executor;
+        this.maxPendingEvents = maxPendingEvents;
+        this.onDropped = onDropped;
+    }
+
+    /**
+     * Queues an event to be written after the events queued before it. Never blocks.
+     *
+     * @param event the event to write
+     */
+    void send(SseEmitter.SseEventBuilder event) {
+        if (completed || failure.get() != null) {
+            return;
+        }
+        if (pendingEvents.incrementAndGet() > maxPendingEvents) {
+            pendingEvents.decrementAndGet();
+            fail(new IllegalStateException(format("More than %d events pending", maxPendingEvents)));
+        } else {
+            events.add(event);
+        }
+        scheduleDrain();
+    }
+
+    /**
+     * Completes the stream once the events queued so far are written. Never blocks.
+     */
+    void complete() {
+        completed = true;
+        scheduleDrain();
+    }
+
+    private void scheduleDrain() {
+        if (draining.compareAndSet(false, true)) {
+            executor.execute(this::drain);
+        }
+    }
+
+    private void drain() {
+        do {
+            SseEmitter.SseEventBuilder event;
+            while (failure.get() == null && (event = events.poll()) != null) {
+                pendingEvents.decrementAndGet();
+                try {
+                    emitter.send(event);
+                } catch (IOException | IllegalStateException e) {
+                    fail(e);
+                }
+            }
+            // Both ends are final, so draining is left set and no sender runs again
+            if (failure.get() != null) {
+                events.clear();
+                emitter.completeWithError(failure.get());
+                return;
+            }
+            if (completed) {
+                emitter.complete();
+                return;
+            }
+            draining.set(false);
+        } while ((!events.isEmpty() || completed || failure.get() != null) && draining.compareAndSet(false, true));
+    }
+
+    private void fail(Exception e) {
+        if (failure.compareAndSet(null, e)) {
+            onDropped.accept(e);
+        }
+    }
+}
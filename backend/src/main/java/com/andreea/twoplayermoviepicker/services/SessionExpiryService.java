@@ -0,0 +1,81 @@
+package com.andreea.twoplayermoviepicker.services;
+
+import com.andreea.twoplayermoviepicker.caches.RoomCodeAllocator;
+import com.andreea.twoplayermoviepicker.caches.RoomRegistry;
+import com.andreea.twoplayermoviepicker.caches.RoomWriteBehind;
+import com.andreea.twoplayermoviepicker.models.Session;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+import static com.andreea.twoplayermoviepicker.utils.ConfigVariables.ROOM_LIFETIME;
+import static com.andreea.twoplayermoviepicker.utils.ConfigVariables.ROOM_SWEEP_BATCH_SIZE;
+
+@RequiredArgsConstructor
+
+@Slf4j
+@Service
+public class SessionExpiryService {
+    // Uses sessions_last_activity_idx; SKIP LOCKED keeps the sweeper from waiting on rooms being written
+    private static final String DELETE_EXPIRED_SESSIONS_SQL = "DELETE FROM sessions WHERE id IN (" +
+            "SELECT id FROM sessions WHERE COALESCE(updated_at, created_at) < ? " +
+            "ORDER BY COALESCE(updated_at, created_at) LIMIT ? FOR UPDATE SKIP LOCKED) " +
+            "RETURNING room_code";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final RoomRegistry roomRegistry;
+    private final RoomWriteBehind roomWriteBehind;
+    private final RoomCodeAllocator roomCodeAllocator;
+    private final RoomEventService roomEventService;
+
+    /**
+     * Checks whether a session had no activity for {@code ROOM_LIFETIME}. Expired sessions can no longer be
+     * rejoined, and are deleted by the next sweep.
+     *
+     * @param session the session to check
+     * @return true if the session expired, false otherwise
+     */
+    public boolean isExpired(Session session) {
+        LocalDateTime lastActivity = session.getUpdatedAt() != null ? session.getUpdatedAt() : session.getCreatedAt();
+        return lastActivity != null && lastActivity.isBefore(LocalDateTime.now().minus(ROOM_LIFETIME));
+    }
+
+    /**
+     * Deletes the sessions that had no activity for {@code ROOM_LIFETIME}, together with their players, seeds and
+     * likes, in batches of {@code ROOM_SWEEP_BATCH_SIZE}. Each batch is its own statement, so the sweep never holds
+     * locks on more than one batch of rooms at a time. The room codes of deleted sessions are released for reuse.
+     */
+    @Scheduled(fixedDelay = 5, timeUnit = TimeUnit.MINUTES)
+    public void sweepExpiredSessions() {
+        // Recent activity still buffered in memory must reach updated_at before expiry is judged on it
+        roomWriteBehind.flush();
+        Timestamp expiredBefore = Timestamp.valueOf(LocalDateTime.now().minus(ROOM_LIFETIME));
+
+        int sweptSessions = 0;
+        List<String> roomCodes;
+        do {
+            roomCodes = jdbcTemplate.queryForList(DELETE_EXPIRED_SESSIONS_SQL, String.class,
+                    expiredBefore, ROOM_SWEEP_BATCH_SIZE);
+            roomCodes.stream()
+                    .filter(Objects::nonNull)
+                    .forEach(roomCode -> {
+                        roomRegistry.evict(roomCode);
+                        roomEventService.closeRoom(roomCode);
+                        roomCodeAllocator.release(roomCode);
+                    });
+            sweptSessions += roomCodes.size();
+        } while (roomCodes.size() == ROOM_SWEEP_BATCH_SIZE);
+
+        if (sweptSessions > 0) {
+            log.info("Deleted {} sessions with no activity since {}", sweptSessions, expiredBefore);
+        }
+    }
+}
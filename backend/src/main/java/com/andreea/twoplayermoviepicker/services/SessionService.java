@@ -1,5 +1,9 @@
 package com.andreea.twoplayermoviepicker.services;
 
+import com.andreea.twoplayermoviepicker.caches.HotPlayer;
+import com.andreea.twoplayermoviepicker.caches.HotRoom;
+import com.andreea.twoplayermoviepicker.caches.RoomCodeAllocator;
+import com.andreea.twoplayermoviepicker.caches.RoomRegistry;
 import com.andreea.twoplayermoviepicker.exceptions.InvalidSeedException;
 import com.andreea.twoplayermoviepicker.exceptions.PlayerNotFoundException;
 import com.andreea.twoplayermoviepicker.exceptions.PlayerSessionExistsException;
@@ -11,20 +15,50 @@ import com.andreea.twoplayermoviepicker.models.Player;
 import com.andreea.twoplayermoviepicker.models.Session;
 import com.andreea.twoplayermoviepicker.repositories.PlayerRepository;
 import com.andreea.twoplayermoviepicker.repositories.SessionRepository;
+import com.andreea.twoplayermoviepicker.repositories.SessionSeedRepository;
 import com.andreea.twoplayermoviepicker.request_models.LikeRequest;
 import com.andreea.twoplayermoviepicker.request_models.RoomRequest;
+import com.andreea.twoplayermoviepicker.request_models.SwipeBatchRequest;
+import com.andreea.twoplayermoviepicker.request_models.SwipeRequest;
+import com.andreea.twoplayermoviepicker.request_models.SwipeType;
+import com.andreea.twoplayermoviepicker.response_models.CommonLikesResponse;
 import com.andreea.twoplayermoviepicker.response_models.MovieResponse;
+import com.andreea.twoplayermoviepicker.response_models.RoomEventResponse;
+import com.andreea.twoplayermoviepicker.response_models.SwipeBatchResponse;
+import com.andreea.twoplayermoviepicker.utils.MovieProjection;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BiFunction;
 import java.util.stream.Collectors;
 
+import static com.andreea.twoplayermoviepicker.utils.ConfigVariables.COMMON_LIKES_LONG_POLL_TIMEOUT;
+import static com.andreea.twoplayermoviepicker.utils.ConfigVariables.MAX_SWIPES_PER_BATCH;
+import static com.andreea.twoplayermoviepicker.utils.ConfigVariables.ROOM_CODE_ALLOCATION_ATTEMPTS;
+import static com.andreea.twoplayermoviepicker.utils.Constants.MATCH_EVENT;
+import static com.andreea.twoplayermoviepicker.utils.Constants.PARTNER_ADVANCED_DECK_EVENT;
+import static com.andreea.twoplayermoviepicker.utils.Constants.PLAYER_JOINED_EVENT;
+import static com.andreea.twoplayermoviepicker.utils.Constants.ROOM_CODE_HEADER;
+import static com.andreea.twoplayermoviepicker.utils.UtilityMethods.isETagMatching;
 import static com.andreea.twoplayermoviepicker.utils.UtilityMethods.isSeedValid;
+import static com.andreea.twoplayermoviepicker.utils.UtilityMethods.seedToInt;
+import static java.lang.String.format;
 
 @RequiredArgsConstructor
 
@@ -32,58 +66,52 @@ import static com.andreea.twoplayermoviepicker.utils.UtilityMethods.isSeedValid;
 @Service
 public class SessionService {
     private final SessionRepository sessionRepository;
+    private final SessionSeedRepository sessionSeedRepository;
     private final PlayerRepository playerRepository;
     private final TmdbService tmdbService;
+    private final PrefetchService prefetchService;
+    private final TransactionTemplate transactionTemplate;
+    private final RoomRegistry roomRegistry;
+    private final RoomCodeAllocator roomCodeAllocator;
+    private final SessionExpiryService sessionExpiryService;
+    private final RoomEventService roomEventService;
+    private final DeckStreamService deckStreamService;
 
     /**
-     * Creates a new room based on the provided request. The method validates the provided seed,
-     * ensures the player session ID and seed do not already exist, and creates a new session
-     * with the specified seed and player information. If the seed or player session ID is invalid
-     * or already exists, a bad request response is returned. Otherwise, the created session is persisted
-     * and a list of movies retrieved from the TMDb service is returned.
+     * Creates a new room based on the provided request. When the request carries no seed, a free room code is
+     * allocated by the server; otherwise the provided seed is validated and claimed as the room code. The player
+     * session ID must not already exist. The created session is persisted, and a list of movies retrieved from
+     * the TMDb service is returned together with the room code in the {@code Room-Code} header.
      *
-     * @param request the request containing details such as seed, language, and player session ID
+     * @param request the request containing details such as the optional seed, language, and player session ID
      *                required for creating the room
-     * @return a {@link ResponseEntity} containing the list of {@link MovieResponse} if the room
+     * @return a future of a {@link ResponseEntity} containing the list of {@link MovieResponse} if the room
      * is successfully created, or a bad request response if validation fails
      */
-    public ResponseEntity<List<MovieResponse>> createRoom(RoomRequest request) {
-        if (!isSeedValid(request.seed())) {
-            throw new InvalidSeedException(request.seed(), request.playerSessionId());
-        }
-        if (playerSessionExists(request.playerSessionId())) {
-            throw new PlayerSessionExistsException(request.playerSessionId());
-        }
-        if (firstSeedExists(request.seed())) {
-            throw new SeedExistsException(request.seed(), request.playerSessionId());
-        }
-
-        Player player = Player.builder()
-                .playerSessionId(request.playerSessionId())
-                .createdAt(LocalDateTime.now())
-                .seedIndex(0)
-                .build();
-
-        log.info("Created new player with player session id {}", request.playerSessionId());
-
-        Session session = Session.builder()
-                .createdAt(LocalDateTime.now())
-                .genres(request.genres().stream()
-                        .map(String::valueOf)
-                        .collect(Collectors.joining(",")))
-                .watchRegion(request.watchRegion())
-                .watchProviders(request.watchProviders().stream()
-                        .map(String::valueOf)
-                        .collect(Collectors.joining(",")))
-                .build();
-        session.addPlayer(player);
-        session.addToSeedSequence(request.seed());
-
-        log.info("Created new session with seed {}", request.seed());
-
-        sessionRepository.save(session);
+    public CompletableFuture<ResponseEntity<List<MovieResponse>>> createRoom(RoomRequest request) {
+        RoomRequest deckRequest = openRoom(request);
+        return getDeckAndPrefetchNext(deckRequest.seed(), deckRequest)
+                .thenApply(deck -> ResponseEntity.ok()
+                        .header(ROOM_CODE_HEADER, deckRequest.seed())
+                        .body(deck));
+    }
 
-        return ResponseEntity.ok(tmdbService.getRandomMoviesFromDiscover(request));
+    /**
+     * Creates a new room like {@link #createRoom}, streaming the movies of its first deck as newline-delimited
+     * JSON as soon as each one is fetched, in deck order.
+     *
+     * @param request    the request containing details such as the optional seed, language, and player session ID
+     *                   required for creating the room
+     * @param projection the fields each movie is streamed with, or null to stream whole movies
+     * @return a {@link ResponseEntity} with the room code in the {@code Room-Code} header, streaming the
+     * {@link MovieResponse} objects of the first deck
+     */
+    public ResponseEntity<ResponseBodyEmitter> streamCreateRoom(RoomRequest request, MovieProjection projection) {
+        RoomRequest deckRequest = openRoom(request);
+        return ResponseEntity.ok()
+                .header(ROOM_CODE_HEADER, deckRequest.seed())
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(streamDeckAndPrefetchNext(deckRequest.seed(), deckRequest, projection));
     }
 
     /**
@@ -92,49 +120,27 @@ public class SessionService {
      *
      * @param request The request object containing details about the room to join, including the seed, player session ID,
      *                and language preferences.
-     * @return A ResponseEntity containing a list of MovieResponse objects that are randomly retrieved
+     * @return A future of a ResponseEntity containing a list of MovieResponse objects that are randomly retrieved
      * based on the room's seed and language preferences. Returns a bad request or not found response
      * based on validation or room availability.
      */
-    public ResponseEntity<List<MovieResponse>> joinRoom(RoomRequest request) {
-        if (!isSeedValid(request.seed())) {
-            throw new InvalidSeedException(request.seed(), request.playerSessionId());
-        }
-        if (!firstSeedExists(request.seed())) {
-            throw new SeedNotFoundException(request.seed(), request.playerSessionId());
-        }
-
-        Session session = findSessionBySeed(request.seed());
-        if (session == null) {
-            throw new SessionNotFoundException(request.seed(), request.playerSessionId());
-        }
-        if (session.getPlayers().size() >= 2) {//TODO: in the future expand for > 2 players
-            throw new TooManyPlayersException(request.seed(), request.playerSessionId(), session.getPlayers().size());
-        }
-
-        if (playerSessionExists(request.playerSessionId())) {
-            log.info("Player session id {} already exists. Trying to move it to the room", request.playerSessionId());
-            Player player = findPlayerBySessionId(request.playerSessionId());
-            session.addPlayer(player);
-            player.setSession(session);
-            player.setUpdatedAt(LocalDateTime.now());
-            sessionRepository.save(session);
-            log.info("Player session id {} moved to the room with ID {}", request.playerSessionId(), session.getId());
-            return ResponseEntity.ok(tmdbService.getRandomMoviesFromDiscover(request));
-        }
-
-        Player player = Player.builder()
-                .playerSessionId(request.playerSessionId())
-                .createdAt(LocalDateTime.now())
-                .seedIndex(0)
-                .build();
-        session.addPlayer(player);
-        sessionRepository.save(session);
-
-        log.info("Added new player with player session id {} to session with id {}", request.playerSessionId(), session.getId());
+    public CompletableFuture<ResponseEntity<List<MovieResponse>>> joinRoom(RoomRequest request) {
+        RoomRequest deckRequest = enterRoom(request);
+        return getDeckAndPrefetchNext(request.seed(), deckRequest).thenApply(ResponseEntity::ok);
+    }
 
-        request = addFiltersToRequest(request, session);
-        return ResponseEntity.ok(tmdbService.getRandomMoviesFromDiscover(request));
+    /**
+     * Joins an existing room like {@link #joinRoom}, streaming the movies of its first deck as newline-delimited
+     * JSON as soon as each one is fetched, in deck order.
+     *
+     * @param request    The request object containing details about the room to join, including the seed, player
+     *                   session ID, and language preferences.
+     * @param projection The fields each movie is streamed with, or null to stream whole movies.
+     * @return A ResponseEntity streaming the MovieResponse objects of the room's first deck.
+     */
+    public ResponseEntity<ResponseBodyEmitter> streamJoinRoom(RoomRequest request, MovieProjection projection) {
+        RoomRequest deckRequest = enterRoom(request);
+        return toStreamingResponse(streamDeckAndPrefetchNext(request.seed(), deckRequest, projection));
     }
 
     /**
@@ -144,40 +150,26 @@ public class SessionService {
      *
      * @param request the room request containing necessary information, such as session and
      *                language details, to retrieve more movies
-     * @return a ResponseEntity containing a list of movie responses if successful, or an
+     * @return a future of a ResponseEntity containing a list of movie responses if successful, or an
      * appropriate error response if validation fails or an error occurs
      */
-    public ResponseEntity<List<MovieResponse>> fetchMoreMovies(RoomRequest request) {
-        Session session = getValidSession(request.seed(), request.playerSessionId());
-        Player player = getValidPlayerInSession(request.seed(), request.playerSessionId());
-
-        String lastSeedInSequence = getLastSeedInSequence(session.getId());
-        if (lastSeedInSequence == null) {
-            throw new RuntimeException("Last seed not found for session " + session.getId());
-        }
-
-        player.setSeedIndex(player.getSeedIndex() + 1);
-        player.setUpdatedAt(LocalDateTime.now());
-
-        if (player.getSeedIndex() < session.getSeedSequence().size()) {
-            String newSeed = session.getSeedSequence().get(player.getSeedIndex());
-            request = request.toBuilder().seed(newSeed).build();
-            sessionRepository.save(session);
-            log.info("Player with session ID {} seed index is lower or equal than the number of seeds in the sequence, " +
-                    "using seed {} for next request", player.getPlayerSessionId(), newSeed);
-            return ResponseEntity.ok(tmdbService.getRandomMoviesFromDiscover(request));
-        }
-
-        String newSeed = tmdbService.generateSeed(lastSeedInSequence);
-        request = request.toBuilder().seed(newSeed).build();
-        session.addToSeedSequence(newSeed);
-        session.setUpdatedAt(LocalDateTime.now());
-        log.info("Player with session ID {} seed index is higher than the number of seeds in the sequence, " +
-                "adding new seed {} to sequence", player.getPlayerSessionId(), newSeed);
-        sessionRepository.save(session);
+    public CompletableFuture<ResponseEntity<List<MovieResponse>>> fetchMoreMovies(RoomRequest request) {
+        RoomRequest deckRequest = advanceToNextDeck(request);
+        return getDeckAndPrefetchNext(request.seed(), deckRequest).thenApply(ResponseEntity::ok);
+    }
 
-        request = addFiltersToRequest(request, session);
-        return ResponseEntity.ok(tmdbService.getRandomMoviesFromDiscover(request));
+    /**
+     * Fetches more movies like {@link #fetchMoreMovies}, streaming them as newline-delimited JSON as soon as each
+     * one is fetched, in deck order.
+     *
+     * @param request    the room request containing necessary information, such as session and
+     *                   language details, to retrieve more movies
+     * @param projection the fields each movie is streamed with, or null to stream whole movies
+     * @return a ResponseEntity streaming the MovieResponse objects of the player's next deck
+     */
+    public ResponseEntity<ResponseBodyEmitter> streamFetchMoreMovies(RoomRequest request, MovieProjection projection) {
+        RoomRequest deckRequest = advanceToNextDeck(request);
+        return toStreamingResponse(streamDeckAndPrefetchNext(request.seed(), deckRequest, projection));
     }
 
     /**
@@ -194,37 +186,68 @@ public class SessionService {
      * - or a response with appropriate HTTP status codes if validation or processing fails
      */
     public ResponseEntity<Boolean> addToLikesAndReturnIsCommon(LikeRequest request) {
-        Session session = getValidSession(request.seed(), request.playerSessionId());
-        Player player = getValidPlayerInSession(request.seed(), request.playerSessionId());
-        String movieId = String.valueOf(request.movieId());
-
-        if (player.getLikes().contains(movieId)) {
-            throw new IllegalArgumentException("Movie already liked");
+        Integer movieId = request.movieId();
+        boolean isCommon = withValidPlayerInRoom(request.seed(), request.playerSessionId(),
+                (room, player) -> room.addLike(player, movieId));
+
+        log.info("Added movie {} to likes for player {}", movieId, request.playerSessionId());
+        if (isCommon) {
+            log.info("Common like found for movie {} by player session id {}", movieId, request.playerSessionId());
+            roomEventService.publishToRoom(request.seed(), MATCH_EVENT, RoomEventResponse.builder()
+                    .playerSessionId(request.playerSessionId())
+                    .movieId(movieId)
+                    .build());
         }
+        return ResponseEntity.ok(isCommon);
+    }
 
-        player.addToLikes(movieId);
-        player.setUpdatedAt(LocalDateTime.now());
-        log.info("Added movie {} to likes for player {}", movieId, player.getPlayerSessionId());
-
-        Player otherPlayer = findOtherPlayerInSession(player, session);
-        if (otherPlayer == null) {
-            log.info("No other player found in session {}. Current player session ID {}",
-                    session.getId(), player.getPlayerSessionId());
-            sessionRepository.save(session);
-            return ResponseEntity.ok(false);
+    /**
+     * Applies a batch of likes and skips of a player with a single lookup of the room. Swipes are applied in the
+     * order of their client sequence numbers, and every swipe is idempotent: a like of a movie the player already
+     * likes changes nothing and a skip is recorded at most once. A batch can therefore safely be resent, also after
+     * a later batch went through. Every match produced by the batch is also pushed to the room's players.
+     *
+     * @param request the request containing the session ID, the player ID and at most {@code MAX_SWIPES_PER_BATCH}
+     *                swipes, each with its sequence number, type and movie ID
+     * @return a ResponseEntity containing the highest sequence number of the player's applied swipes and the IDs of
+     * the movies that the batch made common likes of the room
+     */
+    public ResponseEntity<SwipeBatchResponse> submitSwipes(SwipeBatchRequest request) {
+        if (request.swipes() == null || request.swipes().size() > MAX_SWIPES_PER_BATCH) {
+            throw new IllegalArgumentException(format("Between 0 and %s swipes must be provided",
+                    MAX_SWIPES_PER_BATCH));
         }
+        List<HotRoom.Swipe> swipes = request.swipes().stream()
+                .map(this::toSwipe)
+                .toList();
 
-        if (otherPlayer.getLikes().contains(movieId)) {
-            log.info("Common like found for movie {} by player session id {}", movieId, player.getPlayerSessionId());
-            session.addToCommonLikes(movieId);
-            sessionRepository.save(session);
-            return ResponseEntity.ok(true);
-        }
-        // No common likes found between player and otherPlayer
-        session.setUpdatedAt(LocalDateTime.now());
-        sessionRepository.save(session);
+        SwipeBatchResponse response = withValidPlayerInRoom(request.seed(), request.playerSessionId(),
+                (room, player) -> SwipeBatchResponse.builder()
+                        .matchedMovieIds(room.applySwipes(player, swipes))
+                        .lastSwipeSequence(player.getLastSwipeSequence())
+                        .build());
+
+        log.info("Applied swipes up to sequence {} for player {}, {} common likes found",
+                response.lastSwipeSequence(), request.playerSessionId(), response.matchedMovieIds().size());
+        response.matchedMovieIds().forEach(movieId -> roomEventService.publishToRoom(request.seed(), MATCH_EVENT,
+                RoomEventResponse.builder()
+                        .playerSessionId(request.playerSessionId())
+                        .movieId(movieId)
+                        .build()));
+        return ResponseEntity.ok(response);
+    }
 
-        return ResponseEntity.ok(false);
+    /**
+     * Subscribes a player to the events of their room: matches, players joining and the partner advancing to
+     * their next deck. The player must belong to the room.
+     *
+     * @param seed            the room code of the room whose events are streamed
+     * @param playerSessionId the session ID of the subscribing player
+     * @return the emitter streaming the room's events to the player
+     */
+    public SseEmitter subscribeToRoomEvents(String seed, String playerSessionId) {
+        withValidPlayerInRoom(seed, playerSessionId, (room, player) -> player);
+        return roomEventService.subscribe(seed, playerSessionId);
     }
 
     /**
@@ -234,35 +257,109 @@ public class SessionService {
      * @return a ResponseEntity containing a Boolean value:
      * true if the player can rejoin, false otherwise
      */
+    @Transactional
     public ResponseEntity<Boolean> canPlayerRejoin(String playerSessionId) {
-        Optional<Player> optionalPlayer = playerRepository.findByPlayerSessionId(playerSessionId);
+        return ResponseEntity.ok(findResumableRoomCode(playerSessionId).isPresent());
+    }
+
+    /**
+     * Finds the room a player can rejoin: the room of their session, as long as the session has not expired.
+     * The session is read from the primary, since a room created a moment ago may not have reached the replica yet.
+     *
+     * @param playerSessionId the unique identifier associated with the player's session
+     * @return the room code of the player's room, or an empty optional if the player can not rejoin a room
+     */
+    @Transactional
+    public Optional<String> findResumableRoomCode(String playerSessionId) {
+        Optional<Player> optionalPlayer = playerRepository.findWithSessionByPlayerSessionId(playerSessionId);
         if (optionalPlayer.isEmpty()) {
             log.info("Player with session id {} not found, therefore player can NOT rejoin", playerSessionId);
-            return ResponseEntity.ok(false);
+            return Optional.empty();
         }
         Player player = optionalPlayer.get();
         if (player.getSession() == null) {
             log.info("Player with session id {} has no session, therefore player can NOT rejoin", playerSessionId);
-            return ResponseEntity.ok(false);
+            return Optional.empty();
+        }
+        if (sessionExpiryService.isExpired(player.getSession())) {
+            log.info("Session of player with session id {} expired, therefore player can NOT rejoin", playerSessionId);
+            return Optional.empty();
         }
 
-        return ResponseEntity.ok(true);
+        return Optional.of(player.getSession().getRoomCode());
     }
 
     /**
-     * Retrieves a list of common likes for a given player's session.
+     * Retrieves a list of common likes for a given player's session. The response carries the version of the list
+     * as its ETag, and a request whose {@code If-None-Match} holds the current version is answered with 304 Not
+     * Modified and no body.
      *
      * @param playerSessionId The unique identifier of the player's session.
+     * @param ifNoneMatch     The ETags the client already holds, or null.
      * @return A ResponseEntity containing a list of integers representing common likes
-     * if the session is valid, or a 404 NOT FOUND response if the session is invalid or not found.
+     * if the session is valid, a 304 NOT MODIFIED response if the list did not change,
+     * or a 404 NOT FOUND response if the session is invalid or not found.
      */
-    public ResponseEntity<List<Integer>> getCommonLikes(String playerSessionId) {
-        Session session = getValidSessionByPlayerSessionId(playerSessionId);
-        List<Integer> commonLikedIds = session.getCommonLikes().stream()
-                .map(Integer::parseInt)
-                .toList();
-        log.info("Retrieved {} common likes for player session id {}", commonLikedIds.size(), playerSessionId);
-        return ResponseEntity.ok(commonLikedIds);
+    public ResponseEntity<List<Integer>> getCommonLikes(String playerSessionId, String ifNoneMatch) {
+        HotRoom.CommonLikes commonLikes = findCommonLikesSince(playerSessionId, null, 0);
+        String eTag = toCommonLikesETag(commonLikes);
+        if (isETagMatching(ifNoneMatch, eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(eTag)
+                    .build();
+        }
+        log.info("Retrieved {} common likes for player session id {}", commonLikes.movieIds().size(),
+                playerSessionId);
+        return ResponseEntity.ok()
+                .eTag(eTag)
+                .cacheControl(CacheControl.noCache())
+                .body(commonLikes.movieIds());
+    }
+
+    /**
+     * Retrieves the common likes added to a player's room after the given version of the list. In long-poll mode
+     * a request with no new common likes is held, without a thread, until the next match of the room or until
+     * {@code COMMON_LIKES_LONG_POLL_TIMEOUT}, after which it is answered with no new common likes.
+     *
+     * @param playerSessionId the unique identifier of the player's session
+     * @param generation      the generation of the version the client holds, or null if it holds none
+     * @param since           the version of the list the client already holds
+     * @param wait            whether to hold the request until a new common like arrives
+     * @return a DeferredResult of a ResponseEntity containing the current generation and version of the list and
+     * the IDs of the movies added since the given version, in the order they became common likes, or the whole
+     * list flagged as a resync if the given version is not valid in the current generation
+     */
+    public DeferredResult<ResponseEntity<CommonLikesResponse>> getCommonLikesSince(String playerSessionId,
+                                                                                    Integer generation, Integer since,
+                                                                                    boolean wait) {
+        if (since < 0) {
+            throw new IllegalArgumentException("The common likes version must not be negative");
+        }
+        DeferredResult<ResponseEntity<CommonLikesResponse>> result =
+                new DeferredResult<>(COMMON_LIKES_LONG_POLL_TIMEOUT.toMillis());
+        HotRoom.CommonLikes commonLikes = findCommonLikesSince(playerSessionId, generation, since);
+        if (!wait || commonLikes.resync() || !commonLikes.movieIds().isEmpty()) {
+            result.setResult(toCommonLikesResponse(commonLikes));
+            return result;
+        }
+
+        CompletableFuture<Void> nextMatch = roomEventService.awaitEvent(commonLikes.roomCode(), MATCH_EVENT);
+        result.onTimeout(() -> result.setResult(toCommonLikesResponse(commonLikes)));
+        result.onCompletion(() -> nextMatch.cancel(false));
+        nextMatch.thenRun(() -> {
+            try {
+                result.setResult(toCommonLikesResponse(findCommonLikesSince(playerSessionId, generation, since)));
+            } catch (RuntimeException e) {
+                result.setErrorResult(e);
+            }
+        });
+
+        // A match added before the waiter was registered published no event the waiter could see
+        HotRoom.CommonLikes latestCommonLikes = findCommonLikesSince(playerSessionId, generation, since);
+        if (latestCommonLikes.resync() || !latestCommonLikes.movieIds().isEmpty()) {
+            result.setResult(toCommonLikesResponse(latestCommonLikes));
+        }
+        return result;
     }
 
     /**
@@ -271,87 +368,244 @@ public class SessionService {
      * @param seed the unique identifier used to determine if a room exists
      * @return a ResponseEntity containing a Boolean value; true if the room exists, false otherwise
      */
+    @Transactional(readOnly = true)
     public ResponseEntity<Boolean> doesRoomExist(String seed) {
-        if (firstSeedExists(seed)) {
+        // Active rooms are answered from memory, which also covers rooms not yet replicated
+        if (roomRegistry.contains(seed) || firstSeedExists(seed)) {
             return ResponseEntity.ok(true);
         }
         return ResponseEntity.ok(false);
     }
 
-    private Session getValidSession(String seed, String playerSessionId) {
+    private RoomRequest addPlayerToRoom(RoomRequest request) {
+        Session session = sessionRepository.findWithPlayersByRoomCode(request.seed())
+                .orElseThrow(() -> new SeedNotFoundException(request.seed(), request.playerSessionId()));
+        if (session.getPlayers().size() >= 2) {//TODO: in the future expand for > 2 players
+            throw new TooManyPlayersException(request.seed(), request.playerSessionId(), session.getPlayers().size());
+        }
+
+        Optional<Player> existingPlayer = playerRepository.findByPlayerSessionId(request.playerSessionId());
+        if (existingPlayer.isPresent()) {
+            log.info("Player session id {} already exists. Trying to move it to the room", request.playerSessionId());
+            Player player = existingPlayer.get();
+            session.addPlayer(player);
+            player.setSession(session);
+            player.setUpdatedAt(LocalDateTime.now());
+            sessionRepository.save(session);
+            log.info("Player session id {} moved to the room with ID {}", request.playerSessionId(), session.getId());
+            return request;
+        }
+
+        Player player = Player.builder()
+                .playerSessionId(request.playerSessionId())
+                .createdAt(LocalDateTime.now())
+                .seedIndex(0)
+                .lastSwipeSequence(0L)
+                .build();
+        session.addPlayer(player);
+        sessionRepository.save(session);
+
+        log.info("Added new player with player session id {} to session with id {}", request.playerSessionId(), session.getId());
+
+        return addFiltersToRequest(request, session);
+    }
+
+    private Session buildSession(RoomRequest request, String roomCode) {
+        Player player = Player.builder()
+                .playerSessionId(request.playerSessionId())
+                .createdAt(LocalDateTime.now())
+                .seedIndex(0)
+                .lastSwipeSequence(0L)
+                .build();
+
+        Session session = Session.builder()
+                .roomCode(roomCode)
+                .seedCount(1)
+                .createdAt(LocalDateTime.now())
+                .genres(request.genres().stream()
+                        .map(String::valueOf)
+                        .collect(Collectors.joining(",")))
+                .watchRegion(request.watchRegion())
+                .watchProviders(request.watchProviders().stream()
+                        .map(String::valueOf)
+                        .collect(Collectors.joining(",")))
+                .build();
+        session.addPlayer(player);
+        return session;
+    }
+
+    private <T> T withValidPlayerInRoom(String seed, String playerSessionId, BiFunction<HotRoom, HotPlayer, T> action) {
         if (!isSeedValid(seed)) {
             throw new InvalidSeedException(seed, playerSessionId);
         }
-        return sessionRepository.findSessionIdByFirstSeed(seed)
-                .flatMap(sessionRepository::findById)
-                .orElseThrow(() -> new SessionNotFoundException(seed, playerSessionId));
+        try {
+            return roomRegistry.withRoom(seed, room -> action.apply(room, room.findPlayer(playerSessionId)
+                            .orElseThrow(() -> new PlayerNotFoundException(playerSessionId))))
+                    .orElseThrow(() -> new SessionNotFoundException(seed, playerSessionId));
+        } catch (PlayerNotFoundException e) {
+            // Only the failure path pays for telling a player of another room apart from a missing player
+            if (playerRepository.existsByPlayerSessionId(playerSessionId)) {
+                throw new SessionNotFoundException(seed, playerSessionId);
+            }
+            throw e;
+        }
     }
 
-    private Session getValidSessionByPlayerSessionId(String playerSessionId) {
-        Player player = getValidPlayer(playerSessionId);
-        return player.getSession();
+    private HotRoom.CommonLikes findCommonLikesSince(String playerSessionId, Integer generation, int version) {
+        return roomRegistry.withRoomOfPlayer(playerSessionId, room -> room.getCommonLikesSince(generation, version))
+                .orElseThrow(() -> new PlayerNotFoundException(playerSessionId));
     }
 
-    private Player getValidPlayer(String playerSessionId) {
-        return playerRepository.findByPlayerSessionId(playerSessionId)
-                .orElseThrow(() -> new PlayerNotFoundException(playerSessionId));
+    private ResponseEntity<CommonLikesResponse> toCommonLikesResponse(HotRoom.CommonLikes commonLikes) {
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noStore())
+                .body(CommonLikesResponse.builder()
+                        .generation(commonLikes.generation())
+                        .version(commonLikes.version())
+                        .movieIds(commonLikes.movieIds())
+                        .resync(commonLikes.resync())
+                        .build());
     }
 
-    private Player getValidPlayerInSession(String seed, String playerSessionId) {
-        Player player = getValidPlayer(playerSessionId);
-        Session session = player.getSession();
-        if (session == null || session.getSeedSequence().isEmpty()
-                || !seed.equals(session.getSeedSequence().getFirst())) {
-            throw new SessionNotFoundException(seed, playerSessionId);
-        }
-        return player;
+    private static String toCommonLikesETag(HotRoom.CommonLikes commonLikes) {
+        // Sessions are part of the tag, as room codes are reused and versions restart in every room, and so are
+        // generations, as versions are handed out again after a room is reloaded
+        return format("\"%s-%s-%s\"", commonLikes.sessionId(), commonLikes.generation(), commonLikes.version());
     }
 
-    private Boolean playerSessionExists(String playerSessionId) {
-        return playerRepository.findByPlayerSessionId(playerSessionId).isPresent();
+    private HotRoom.Swipe toSwipe(SwipeRequest swipe) {
+        if (swipe == null || swipe.sequence() == null || swipe.type() == null || swipe.movieId() == null) {
+            throw new IllegalArgumentException("Every swipe must have a sequence number, a type and a movie ID");
+        }
+        return new HotRoom.Swipe(swipe.sequence(), swipe.type() == SwipeType.LIKE, swipe.movieId());
     }
 
     private Boolean firstSeedExists(String seed) {
-        return sessionRepository.findSessionIdByFirstSeed(seed).isPresent();
+        return sessionRepository.existsByRoomCode(seed);
     }
 
-    private Session findSessionBySeed(String seed) {
-        Optional<Integer> optionalId = sessionRepository.findSessionIdByFirstSeed(seed);
-        return optionalId
-                .flatMap(sessionRepository::findById)
-                .orElse(null);
-    }
+    private RoomRequest openRoom(RoomRequest request) {
+        boolean isCodeChosenByClient = request.seed() != null && !request.seed().isBlank();
+        if (isCodeChosenByClient && !isSeedValid(request.seed())) {
+            throw new InvalidSeedException(request.seed(), request.playerSessionId());
+        }
+        if (playerRepository.existsByPlayerSessionId(request.playerSessionId())) {
+            throw new PlayerSessionExistsException(request.playerSessionId());
+        }
+
+        Session session = null;
+        for (int attempt = 1; session == null; attempt++) {
+            String roomCode = isCodeChosenByClient ? request.seed() : roomCodeAllocator.allocate();
+            if (isCodeChosenByClient && !roomCodeAllocator.claim(roomCode)) {
+                throw new SeedExistsException(roomCode, request.playerSessionId());
+            }
 
-    private String getLastSeedInSequence(Integer sessionId) {
-        return sessionRepository.findLastSeedInSequenceById(sessionId).orElse(null);
+            boolean isCodeOwnedByAnotherRoom = false;
+            try {
+                // The session and the first seed of its sequence are committed together, so a room never exists
+                // without the seed its first deck is fetched with
+                session = transactionTemplate.execute(status -> {
+                    Session savedSession = sessionRepository.save(buildSession(request, roomCode));
+                    sessionSeedRepository.insertIfAbsent(savedSession.getId(), 0, seedToInt(roomCode));
+                    return savedSession;
+                });
+            } catch (DataIntegrityViolationException e) {
+                // Another request created the same room code or player session in the meantime
+                if (!firstSeedExists(roomCode)) {
+                    throw new PlayerSessionExistsException(request.playerSessionId());
+                }
+                isCodeOwnedByAnotherRoom = true;
+                if (isCodeChosenByClient || attempt >= ROOM_CODE_ALLOCATION_ATTEMPTS) {
+                    throw new SeedExistsException(roomCode, request.playerSessionId());
+                }
+                log.warn("Allocated room code {} was taken in the meantime, allocating another one", roomCode);
+            } finally {
+                // Whatever made the save fail, a code no room was created with is handed back to the allocator
+                if (session == null && !isCodeOwnedByAnotherRoom) {
+                    roomCodeAllocator.release(roomCode);
+                }
+            }
+        }
+
+        String roomCode = session.getRoomCode();
+        log.info("Created new session with seed {}", roomCode);
+        roomRegistry.register(session, new int[]{seedToInt(roomCode)});
+
+        return request.toBuilder().seed(roomCode).build();
     }
 
-    private Player findPlayerBySessionId(String playerSessionId) {
-        return playerRepository.findByPlayerSessionId(playerSessionId).orElse(null);
+    private RoomRequest enterRoom(RoomRequest request) {
+        if (!isSeedValid(request.seed())) {
+            throw new InvalidSeedException(request.seed(), request.playerSessionId());
+        }
+
+        RoomRequest deckRequest = transactionTemplate.execute(status -> addPlayerToRoom(request));
+        // The players of the room changed in the database, so the rooms are reloaded on their next request
+        roomRegistry.evictRoomOfPlayer(request.playerSessionId());
+        roomRegistry.evict(request.seed());
+        roomEventService.publishToPartners(request.seed(), request.playerSessionId(), PLAYER_JOINED_EVENT,
+                RoomEventResponse.builder().playerSessionId(request.playerSessionId()).build());
+        return deckRequest;
     }
 
-    private Player findOtherPlayerInSession(Player currentPlayer, Session session) {
-        for (Player player : session.getPlayers()) {
-            if (!player.getPlayerSessionId().equals(currentPlayer.getPlayerSessionId())) {
-                return player;
+    private RoomRequest advanceToNextDeck(RoomRequest request) {
+        return withValidPlayerInRoom(request.seed(), request.playerSessionId(), (room, player) -> {
+            HotRoom.NextSeed nextSeed = room.advanceToNextSeed(player, tmdbService::generateSeed);
+            roomEventService.publishToPartners(room.getRoomCode(), player.getPlayerSessionId(),
+                    PARTNER_ADVANCED_DECK_EVENT, RoomEventResponse.builder()
+                            .playerSessionId(player.getPlayerSessionId())
+                            .seedIndex(nextSeed.seedIndex())
+                            .build());
+            RoomRequest nextRequest = request.toBuilder().seed(nextSeed.seed()).build();
+            if (!nextSeed.appended()) {
+                log.info("Player with session ID {} seed index is lower or equal than the number of seeds in the sequence, " +
+                        "using seed {} for next request", player.getPlayerSessionId(), nextSeed.seed());
+                return nextRequest;
             }
-        }
-        return null;
+            log.info("Player with session ID {} seed index is higher than the number of seeds in the sequence, " +
+                    "adding new seed {} to sequence", player.getPlayerSessionId(), nextSeed.seed());
+            return addFiltersToRequest(nextRequest, room.getGenreIds(), room.getWatchRegion(), room.getWatchProviderIds());
+        });
+    }
+
+    private CompletableFuture<List<MovieResponse>> getDeckAndPrefetchNext(String roomSeed, RoomRequest request) {
+        return tmdbService.getRandomMoviesFromDiscover(request)
+                .thenApply(movieResponseList -> {
+                    prefetchService.prefetchNextDeck(roomSeed, request);
+                    return movieResponseList;
+                });
+    }
+
+    private ResponseBodyEmitter streamDeckAndPrefetchNext(String roomSeed, RoomRequest request,
+                                                          MovieProjection projection) {
+        return deckStreamService.stream(tmdbService.getDeckFromDiscover(request), request.seed(), projection,
+                () -> prefetchService.prefetchNextDeck(roomSeed, request));
+    }
+
+    private ResponseEntity<ResponseBodyEmitter> toStreamingResponse(ResponseBodyEmitter emitter) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(emitter);
     }
 
     private RoomRequest addFiltersToRequest(RoomRequest request, Session session) {
+        return addFiltersToRequest(request, session.getGenreIds(), session.getWatchRegion(), session.getWatchProviderIds());
+    }
+
+    private RoomRequest addFiltersToRequest(RoomRequest request, Set<Integer> genreIds, String watchRegion,
+                                            Set<Integer> watchProviderIds) {
         RoomRequest.RoomRequestBuilder roomRequestBuilder = request.toBuilder();
 
-        if (session.getGenreIds() != null && !session.getGenreIds().isEmpty()) {
-            roomRequestBuilder.genres(session.getGenreIds().stream().toList());
+        if (genreIds != null && !genreIds.isEmpty()) {
+            roomRequestBuilder.genres(genreIds.stream().toList());
         }
 
-        if (session.getWatchRegion() != null && !session.getWatchRegion().isEmpty()) {
-            roomRequestBuilder.watchRegion(session.getWatchRegion());
+        if (watchRegion != null && !watchRegion.isEmpty()) {
+            roomRequestBuilder.watchRegion(watchRegion);
         }
 
-        if (session.getWatchProviderIds() != null && !session.getWatchProviderIds().isEmpty()) {
-            roomRequestBuilder.watchProviders(session.getWatchProviderIds().stream().toList());
+        if (watchProviderIds != null && !watchProviderIds.isEmpty()) {
+            roomRequestBuilder.watchProviders(watchProviderIds.stream().toList());
         }
 
         return roomRequestBuilder.build();
@@ -0,0 +1,335 @@
+package com.andreea.twoplayermoviepicker.services;
+
+import com.andreea.twoplayermoviepicker.exceptions.TmdbStatusException;
+import com.andreea.twoplayermoviepicker.exceptions.TmdbUnavailableException;
+import com.andreea.twoplayermoviepicker.response_models.TmdbGovernorStatsResponse;
+import info.movito.themoviedbapi.tools.TmdbException;
+import info.movito.themoviedbapi.tools.TmdbResponseException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import static com.andreea.twoplayermoviepicker.utils.ConfigVariables.TMDB_CIRCUIT_FAILURE_THRESHOLD;
+import static com.andreea.twoplayermoviepicker.utils.ConfigVariables.TMDB_CIRCUIT_OPEN_DURATION;
+import static com.andreea.twoplayermoviepicker.utils.ConfigVariables.TMDB_MAX_CONCURRENT_CALLS;
+import static com.andreea.twoplayermoviepicker.utils.ConfigVariables.TMDB_MAX_QUEUE_TIME;
+import static com.andreea.twoplayermoviepicker.utils.ConfigVariables.TMDB_RATE_LIMIT_PER_SECOND;
+
+/**
+ * Guards every outbound TMDB call with, in order, a concurrency bulkhead, a circuit breaker and a token-bucket
+ * rate limiter, so a rate limit token is only spent on a call the bulkhead and circuit admitted. Calls wait up to
+ * {@code TMDB_MAX_QUEUE_TIME} for a concurrency slot and a token, and are rejected with a
+ * {@link TmdbUnavailableException} when the wait would be longer or when the circuit is open.
+ * <p>
+ * Only errors that say TMDB is struggling count as failures: 5xx and 429 responses, I/O errors and timeouts.
+ * After {@code TMDB_CIRCUIT_FAILURE_THRESHOLD} consecutive failures the circuit opens for
+ * {@code TMDB_CIRCUIT_OPEN_DURATION}, then lets a single probe call through to decide whether to close again.
+ */
+@Slf4j
+@Component
+public class TmdbGovernor {
+    private final ExecutorService tmdbExecutor;
+    private final Semaphore bulkhead = new Semaphore(TMDB_MAX_CONCURRENT_CALLS, true);
+
+    private final Object rateLimiterLock = new Object();
+    private double availableTokens = TMDB_RATE_LIMIT_PER_SECOND;
+    private long lastRefillNanos = System.nanoTime();
+
+    private CircuitState circuitState = CircuitState.CLOSED;
+    private int consecutiveFailures;
+    private long circuitOpenedAtNanos;
+    private boolean halfOpenProbeInFlight;
+
+    private final LongAdder permittedCalls = new LongAdder();
+    private final LongAdder rejectedCalls = new LongAdder();
+    private final LongAdder failedCalls = new LongAdder();
+    private final LongAdder totalQueueNanos = new LongAdder();
+    private final LongAccumulator maxQueueNanos = new LongAccumulator(Math::max, 0);
+    private final LongAdder totalLatencyNanos = new LongAdder();
+    private final LongAccumulator maxLatencyNanos = new LongAccumulator(Math::max, 0);
+
+    public TmdbGovernor(@Qualifier("tmdbExecutor") ExecutorService tmdbExecutor) {
+        this.tmdbExecutor = tmdbExecutor;
+    }
+
+    /**
+     * Runs a TMDB call once the bulkhead, circuit breaker and rate limiter permit it.
+     *
+     * @param operation a short name of the call, used in logs and error messages
+     * @param tmdbCall  the call to run
+     * @return the result of the call
+     * @throws TmdbException            if the call itself fails
+     * @throws TmdbUnavailableException if the call is rejected by the governor
+     */
+    public <T> T call(String operation, TmdbCall<T> tmdbCall) throws TmdbException {
+        long callStartNanos = admit(operation);
+        Throwable error = null;
+        try {
+            return tmdbCall.execute();
+        } catch (TmdbException | RuntimeException | Error e) {
+            error = e;
+            throw e;
+        } finally {
+            try {
+                onCallCompleted(operation, error);
+            } finally {
+                release(callStartNanos);
+            }
+        }
+    }
+
+    /**
+     * Starts an asynchronous TMDB call once the bulkhead, circuit breaker and rate limiter permit it. Waiting for
+     * permission happens on a virtual thread of the TMDB executor rather than on the caller, and the concurrency
+     * slot is held until the call completes.
+     *
+     * @param operation a short name of the call, used in logs and error messages
+     * @param tmdbCall  starts the call and returns its future
+     * @return the future of the call, completed exceptionally with a {@link TmdbUnavailableException} if the call
+     * is rejected by the governor
+     */
+    public <T> CompletableFuture<T> callAsync(String operation, Supplier<CompletableFuture<T>> tmdbCall) {
+        return CompletableFuture.supplyAsync(() -> admit(operation), tmdbExecutor)
+                .thenCompose(callStartNanos -> {
+                    CompletableFuture<T> future;
+                    try {
+                        future = tmdbCall.get();
+                    } catch (RuntimeException | Error e) {
+                        future = CompletableFuture.failedFuture(e);
+                    }
+                    return future.whenComplete((result, error) -> {
+                        try {
+                            onCallCompleted(operation, error);
+                        } finally {
+                            release(callStartNanos);
+                        }
+                    });
+                });
+    }
+
+    public TmdbGovernorStatsResponse getStats() {
+        long permitted = permittedCalls.sum();
+        synchronized (this) {
+            return TmdbGovernorStatsResponse.builder()
+                    .circuitState(circuitState.name())
+                    .permittedCalls(permitted)
+                    .rejectedCalls(rejectedCalls.sum())
+                    .failedCalls(failedCalls.sum())
+                    .availableConcurrency(bulkhead.availablePermits())
+                    .averageQueueMillis(permitted == 0 ? 0 : toMillis(totalQueueNanos.sum()) / permitted)
+                    .maxQueueMillis(toMillis(maxQueueNanos.get()))
+                    .averageLatencyMillis(permitted == 0 ? 0 : toMillis(totalLatencyNanos.sum()) / permitted)
+                    .maxLatencyMillis(toMillis(maxLatencyNanos.get()))
+                    .build();
+        }
+    }
+
+    private long admit(String operation) {
+        if (isCircuitOpen()) {
+            reject(operation, "circuit breaker is open", TMDB_CIRCUIT_OPEN_DURATION);
+        }
+
+        long queueStartNanos = System.nanoTime();
+        long queueDeadlineNanos = queueStartNanos + TMDB_MAX_QUEUE_TIME.toNanos();
+        acquireBulkhead(operation, queueDeadlineNanos);
+        try {
+            acquireCircuitPermission(operation);
+            try {
+                waitForToken(operation, queueDeadlineNanos);
+            } catch (TmdbUnavailableException e) {
+                releaseCircuitPermission();
+                throw e;
+            }
+        } catch (TmdbUnavailableException e) {
+            bulkhead.release();
+            throw e;
+        }
+        long callStartNanos = System.nanoTime();
+        recordQueueTime(callStartNanos - queueStartNanos);
+        permittedCalls.increment();
+        return callStartNanos;
+    }
+
+    private void release(long callStartNanos) {
+        recordLatency(System.nanoTime() - callStartNanos);
+        bulkhead.release();
+    }
+
+    private void waitForToken(String operation, long queueDeadlineNanos) {
+        long waitNanos;
+        synchronized (rateLimiterLock) {
+            long nowNanos = System.nanoTime();
+            availableTokens = Math.min(TMDB_RATE_LIMIT_PER_SECOND,
+                    availableTokens + (nowNanos - lastRefillNanos) * TMDB_RATE_LIMIT_PER_SECOND / 1e9);
+            lastRefillNanos = nowNanos;
+            availableTokens -= 1;
+            waitNanos = availableTokens >= 0 ? 0 : (long) (-availableTokens * 1e9 / TMDB_RATE_LIMIT_PER_SECOND);
+            if (nowNanos + waitNanos > queueDeadlineNanos) {
+                availableTokens += 1;
+                waitNanos = -1;
+            }
+        }
+        if (waitNanos < 0) {
+            reject(operation, "rate limit reached", Duration.ofSeconds(1));
+        }
+        if (waitNanos > 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(waitNanos);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                reject(operation, "interrupted while waiting for the rate limiter", Duration.ofSeconds(1));
+            }
+        }
+    }
+
+    private void acquireBulkhead(String operation, long queueDeadlineNanos) {
+        try {
+            if (!bulkhead.tryAcquire(Math.max(0, queueDeadlineNanos - System.nanoTime()), TimeUnit.NANOSECONDS)) {
+                reject(operation, "too many concurrent calls", Duration.ofSeconds(1));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            reject(operation, "interrupted while waiting for the bulkhead", Duration.ofSeconds(1));
+        }
+    }
+
+    private synchronized boolean isCircuitOpen() {
+        return circuitState == CircuitState.OPEN
+                && System.nanoTime() - circuitOpenedAtNanos < TMDB_CIRCUIT_OPEN_DURATION.toNanos();
+    }
+
+    private synchronized void acquireCircuitPermission(String operation) {
+        if (circuitState == CircuitState.OPEN) {
+            if (System.nanoTime() - circuitOpenedAtNanos < TMDB_CIRCUIT_OPEN_DURATION.toNanos()) {
+                reject(operation, "circuit breaker is open", TMDB_CIRCUIT_OPEN_DURATION);
+            }
+            log.info("TMDB circuit breaker is half-open, letting a probe call through");
+            circuitState = CircuitState.HALF_OPEN;
+            halfOpenProbeInFlight = false;
+        }
+        if (circuitState == CircuitState.HALF_OPEN) {
+            if (halfOpenProbeInFlight) {
+                reject(operation, "circuit breaker is half-open and a probe call is in flight",
+                        TMDB_CIRCUIT_OPEN_DURATION);
+            }
+            halfOpenProbeInFlight = true;
+        }
+    }
+
+    private synchronized void releaseCircuitPermission() {
+        if (circuitState == CircuitState.HALF_OPEN) {
+            halfOpenProbeInFlight = false;
+        }
+    }
+
+    private void onCallCompleted(String operation, Throwable error) {
+        if (error == null || isTmdbResponse(error)) {
+            onCallSuccess();
+        } else if (isTmdbFailure(error)) {
+            onCallFailure(operation);
+        } else {
+            // Neither TMDB's answer nor its failure, so a probe call leaves the circuit half-open for the next one
+            releaseCircuitPermission();
+        }
+    }
+
+    private synchronized void onCallSuccess() {
+        consecutiveFailures = 0;
+        if (circuitState == CircuitState.HALF_OPEN) {
+            log.info("TMDB probe call succeeded, closing the circuit breaker");
+            circuitState = CircuitState.CLOSED;
+            halfOpenProbeInFlight = false;
+        }
+    }
+
+    private synchronized void onCallFailure(String operation) {
+        failedCalls.increment();
+        consecutiveFailures++;
+        if (circuitState == CircuitState.HALF_OPEN || consecutiveFailures >= TMDB_CIRCUIT_FAILURE_THRESHOLD) {
+            if (circuitState != CircuitState.OPEN) {
+                log.warn("Opening the TMDB circuit breaker for {} ms after {} consecutive failures, last call {}",
+                        TMDB_CIRCUIT_OPEN_DURATION.toMillis(), consecutiveFailures, operation);
+            }
+            circuitState = CircuitState.OPEN;
+            circuitOpenedAtNanos = System.nanoTime();
+            halfOpenProbeInFlight = false;
+        }
+    }
+
+    private static boolean isTmdbResponse(Throwable error) {
+        Integer statusCode = findStatusCode(unwrap(error));
+        return statusCode != null && !isTmdbFailureStatus(statusCode);
+    }
+
+    private static boolean isTmdbFailure(Throwable error) {
+        Throwable cause = unwrap(error);
+        Integer statusCode = findStatusCode(cause);
+        if (statusCode != null) {
+            return isTmdbFailureStatus(statusCode);
+        }
+        for (Throwable current = cause; current != null; current = current.getCause()) {
+            if (current instanceof IOException || current instanceof TimeoutException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Integer findStatusCode(Throwable cause) {
+        if (cause instanceof TmdbStatusException statusException) {
+            return statusException.getStatusCode();
+        }
+        if (cause instanceof TmdbResponseException responseException) {
+            return responseException.getResponseCode().getHttpStatus();
+        }
+        return null;
+    }
+
+    private static boolean isTmdbFailureStatus(int statusCode) {
+        return statusCode >= 500 || statusCode == 429;
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
+
+    private void reject(String operation, String reason, Duration retryAfter) {
+        rejectedCalls.increment();
+        throw new TmdbUnavailableException(operation, reason, retryAfter);
+    }
+
+    private void recordQueueTime(long queueNanos) {
+        totalQueueNanos.add(queueNanos);
+        maxQueueNanos.accumulate(queueNanos);
+    }
+
+    private void recordLatency(long latencyNanos) {
+        totalLatencyNanos.add(latencyNanos);
+        maxLatencyNanos.accumulate(latencyNanos);
+    }
+
+    private double toMillis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    @FunctionalInterface
+    public interface TmdbCall<T> {
+        T execute() throws TmdbException;
+    }
+
+    private enum CircuitState {
+        CLOSED, OPEN, HALF_OPEN
+    }
+}
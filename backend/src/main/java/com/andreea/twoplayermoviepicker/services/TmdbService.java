@@ -1,22 +1,31 @@
 package com.andreea.twoplayermoviepicker.services;
 
+import com.andreea.twoplayermoviepicker.caches.DiscoverCache;
+import com.andreea.twoplayermoviepicker.caches.DiscoverFilter;
+import com.andreea.twoplayermoviepicker.caches.MovieCatalog;
+import com.andreea.twoplayermoviepicker.caches.MovieDetailsCache;
+import com.andreea.twoplayermoviepicker.clients.TmdbHttpClient;
 import com.andreea.twoplayermoviepicker.exceptions.MovieNotFoundException;
+import com.andreea.twoplayermoviepicker.exceptions.TmdbStatusException;
+import com.andreea.twoplayermoviepicker.exceptions.TmdbUnavailableException;
 import com.andreea.twoplayermoviepicker.request_models.RoomRequest;
+import com.andreea.twoplayermoviepicker.request_models.TrailersRequest;
+import com.andreea.twoplayermoviepicker.response_models.CacheStatsResponse;
 import com.andreea.twoplayermoviepicker.response_models.GenreResponse;
 import com.andreea.twoplayermoviepicker.response_models.MovieResponse;
 import com.andreea.twoplayermoviepicker.response_models.ProviderResponse;
+import com.andreea.twoplayermoviepicker.response_models.TmdbGovernorStatsResponse;
 import info.movito.themoviedbapi.TmdbApi;
-import info.movito.themoviedbapi.TmdbDiscover;
-import info.movito.themoviedbapi.model.core.IdElement;
+import info.movito.themoviedbapi.model.core.Genre;
+import info.movito.themoviedbapi.model.core.Movie;
 import info.movito.themoviedbapi.model.core.MovieResultsPage;
 import info.movito.themoviedbapi.model.core.video.Video;
-import info.movito.themoviedbapi.model.core.video.VideoResults;
 import info.movito.themoviedbapi.model.movies.MovieDb;
 import info.movito.themoviedbapi.model.watchproviders.Provider;
 import info.movito.themoviedbapi.model.watchproviders.ProviderResults;
 import info.movito.themoviedbapi.tools.TmdbException;
-import info.movito.themoviedbapi.tools.builders.discover.DiscoverMovieParamBuilder;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
@@ -24,11 +33,20 @@ import org.springframework.stereotype.Service;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
-import static com.andreea.twoplayermoviepicker.utils.ConfigVariables.DISCOVER_SORT_BY;
+import static com.andreea.twoplayermoviepicker.utils.ConfigVariables.DECK_FETCH_TIMEOUT;
 import static com.andreea.twoplayermoviepicker.utils.ConfigVariables.MAX_DISCOVER_PAGE;
+import static com.andreea.twoplayermoviepicker.utils.ConfigVariables.MAX_TRAILERS_PER_REQUEST;
 import static com.andreea.twoplayermoviepicker.utils.ConfigVariables.MOVIES_FETCHED_FROM_DISCOVER;
 import static com.andreea.twoplayermoviepicker.utils.Constants.EN_LANGUAGE_CODE;
 import static com.andreea.twoplayermoviepicker.utils.Constants.MAX_NUMBER_BASE_36;
@@ -41,9 +59,25 @@ import static java.lang.String.format;
 @Service
 public class TmdbService {
     private final TmdbApi tmdbApi;
-
-    public TmdbService(@Value("${tmdb-api-key}") String tmdbApiKey) {
+    private final TmdbHttpClient tmdbHttpClient;
+    private final ExecutorService tmdbExecutor;
+    private final TmdbGovernor tmdbGovernor;
+    private final MovieCatalog movieCatalog;
+    private final MovieDetailsCache movieDetailsCache;
+    private final DiscoverCache discoverCache;
+
+    public TmdbService(@Value("${tmdb-api-key}") String tmdbApiKey,
+                       TmdbHttpClient tmdbHttpClient,
+                       @Qualifier("tmdbExecutor") ExecutorService tmdbExecutor,
+                       TmdbGovernor tmdbGovernor,
+                       MovieCatalog movieCatalog) {
         tmdbApi = new TmdbApi(tmdbApiKey);
+        this.tmdbHttpClient = tmdbHttpClient;
+        this.tmdbExecutor = tmdbExecutor;
+        this.tmdbGovernor = tmdbGovernor;
+        this.movieCatalog = movieCatalog;
+        movieDetailsCache = new MovieDetailsCache(this::loadMovieResponse, this::fetchMovieResponse, tmdbExecutor);
+        discoverCache = new DiscoverCache(this::getMovieResultsPageFromDiscover, tmdbExecutor);
     }
 
     /**
@@ -56,51 +90,81 @@ public class TmdbService {
      *                - genres: A list of genre IDs to filter the movies.
      *                - watchRegion: The region code used to filter movies based on availability.
      *                - watchProviders: A list of provider IDs to filter the movies.
-     * @return a list of movies that match the given parameters, or an empty list if no movies could be retrieved.
+     * @return a future of the list of movies that match the given parameters, or of an empty list if no movies
+     * could be retrieved. No thread is held while the discover page and the movie details are fetched. Movies whose
+     * details fail or are still pending after {@code DECK_FETCH_TIMEOUT} are returned as the placeholders built from
+     * their discover entries, so every player of a seed gets the same deck.
+     */
+    public CompletableFuture<List<MovieResponse>> getRandomMoviesFromDiscover(RoomRequest request) {
+        return getDeckFromDiscover(request)
+                .thenCompose(deck -> awaitDeckFetchDeadline(deck.stream().map(DeckMovie::details).toList())
+                        .thenApply(ignored -> {
+                            checkDeckFetched(deck, request.seed());
+                            List<MovieResponse> movieResponseList = deck.stream()
+                                    .map(DeckMovie::resolvedOrPlaceholder)
+                                    .toList();
+                            log.info("Successfully fetched {} movies from discover, {} of them as placeholders",
+                                    movieResponseList.size(),
+                                    deck.stream().filter(movie -> !movie.isResolved()).count());
+                            return movieResponseList;
+                        }));
+    }
+
+    /**
+     * Resolves the deck of a seed, see {@link #getRandomMoviesFromDiscover}, without waiting for the details of
+     * its movies. The returned future completes once the discover page is known, with one {@link DeckMovie} per movie
+     * of the deck in seed-determined order, so a caller can hand out each movie as soon as its details resolve.
+     *
+     * @param request the request containing parameters such as seed, language, genres, watch region, and watch providers
+     * @return a future of the movies of the deck, in seed-determined order, or of an empty list if the discover
+     * endpoint has no movies for the filters
      */
-    public List<MovieResponse> getRandomMoviesFromDiscover(RoomRequest request) {
+    public CompletableFuture<List<DeckMovie>> getDeckFromDiscover(RoomRequest request) {
         String seed = request.seed();
         String language = request.language();
-        List<Integer> genres = request.genres();
-        String watchRegion = request.watchRegion();
-        List<Integer> watchProviders = request.watchProviders();
+        DiscoverFilter filter = DiscoverFilter.fromRoomRequest(request);
 
         long seedLong = Long.parseLong(seed.toUpperCase(), 36);
         Random random = new Random(seedLong);
         int discoverPage = random.nextInt(MAX_DISCOVER_PAGE) + 1;
 
-        log.info("Fetching discover movies for seed {} (page {}), language {}, genres {}, watchRegion {}, watchProviders {}",
-                seed, discoverPage, language, genres, watchRegion, watchProviders);
-
-        MovieResultsPage movieResultsPage = getMovieResultsPageFromDiscover(
-                discoverPage, language, genres, watchRegion, watchProviders);
-
-        if (movieResultsPage.getTotalPages() == 0) {
-            log.info("Failed to fetch movies from discover for seed {} due to no results", seed);
-            return Collections.emptyList();
-        }
-
-        if (movieResultsPage.getTotalPages() < discoverPage) {
-            log.info("Failed to fetch movies from discover for seed {} (page {}) due to page limit", seed, discoverPage);
-            discoverPage = random.nextInt(movieResultsPage.getTotalPages()) + 1;
-            log.info("Retrying with page {}...", discoverPage);
-            movieResultsPage = getMovieResultsPageFromDiscover(
-                    discoverPage, language, genres, watchRegion, watchProviders);
-        }
-
-        if (movieResultsPage != null) {
-            List<MovieResponse> movieResponseList = getMovieResponseListFromMovieResultsPage(
-                    movieResultsPage, language, random
-            );
-            log.info("Successfully fetched {} movies from discover", movieResponseList.size());
-            return movieResponseList;
+        Integer knownTotalPages = discoverCache.getTotalPages(filter);
+        if (knownTotalPages != null) {
+            if (knownTotalPages == 0) {
+                log.info("No movies in discover for seed {} based on the cached page count", seed);
+                return CompletableFuture.completedFuture(Collections.emptyList());
+            }
+            if (knownTotalPages < discoverPage) {
+                discoverPage = random.nextInt(knownTotalPages) + 1;
+            }
         }
 
-        log.warn("Failed to fetch movies from discover for seed {} (page {})", seed, discoverPage);
-        return Collections.emptyList();
+        log.info("Fetching discover movies for seed {} (page {}), language {}, genres {}, watchRegion {}, watchProviders {}",
+                seed, discoverPage, language, filter.genres(), filter.watchRegion(), filter.watchProviders());
+
+        int firstDiscoverPage = discoverPage;
+        return discoverCache.getPage(firstDiscoverPage, filter)
+                .thenCompose(movieResultsPage -> {
+                    if (movieResultsPage.getTotalPages() == 0) {
+                        log.info("Failed to fetch movies from discover for seed {} due to no results", seed);
+                        return CompletableFuture.completedFuture(Collections.emptyList());
+                    }
+
+                    if (movieResultsPage.getTotalPages() < firstDiscoverPage) {
+                        log.info("Failed to fetch movies from discover for seed {} (page {}) due to page limit",
+                                seed, firstDiscoverPage);
+                        int retryDiscoverPage = random.nextInt(movieResultsPage.getTotalPages()) + 1;
+                        log.info("Retrying with page {}...", retryDiscoverPage);
+                        return discoverCache.getPage(retryDiscoverPage, filter)
+                                .thenApply(retriedResultsPage -> getDeckFromDiscoverPage(
+                                        retriedResultsPage, seed, retryDiscoverPage, language, random));
+                    }
+
+                    return CompletableFuture.completedFuture(getDeckFromDiscoverPage(
+                            movieResultsPage, seed, firstDiscoverPage, language, random));
+                });
     }
 
-
     /**
      * Generates a new random seed based on the provided old seed. The old seed must be a valid
      * alphanumeric string of exactly 4 characters. The new seed is also represented as a
@@ -129,46 +193,70 @@ public class TmdbService {
 
     /**
      * Retrieves the YouTube trailer URL for a specific movie based on its ID and language preferences.
-     * The method searches for the most suitable video marked as a "Trailer" or "Featurette" and hosted on YouTube.
-     * If no relevant video is found, a 404 response is returned. In case of TMDB API errors, an exception is thrown.
+     * The trailer is resolved together with the movie details, so it is served from the movie details cache
+     * when the movie was already part of a deck. If no relevant video is found, a 404 response is returned.
      *
      * @param movieId  the ID of the movie for which the trailer is to be retrieved
      * @param language the language code (e.g., "en", "fr") indicating the preferred language for the trailer
-     * @return a ResponseEntity containing the YouTube trailer URL as a string if found,
+     * @return a future of a ResponseEntity containing the YouTube trailer URL as a string if found,
      * or a 404 Not Found response if no suitable video is available
      */
-    public ResponseEntity<String> getYoutubeTrailer(Integer movieId, String language) throws TmdbException {
-        VideoResults videoResults = tmdbApi.getMovies().getVideos(movieId, language);
-        List<Video> videos = videoResults.getResults();
-
-        Video trailer = findBestVideo(videos, "Trailer", true);
+    public CompletableFuture<ResponseEntity<String>> getYoutubeTrailer(Integer movieId, String language) {
+        return movieDetailsCache.get(movieId, language)
+                .thenApply(movieResponse -> {
+                    String trailerUrl = movieResponse.youtubeTrailer();
+                    if (trailerUrl != null) {
+                        log.info("Found YouTube trailer for movie {}: {}", movieId, trailerUrl);
+                        return ResponseEntity.ok(trailerUrl);
+                    }
+                    log.warn("No suitable YouTube trailer found for movie {}", movieId);
+                    return ResponseEntity.notFound().build();
+                });
+    }
 
-        if (trailer == null) {
-            trailer = findBestVideo(videos, "Trailer", false);
-        }
-        if (trailer == null) {
-            trailer = findBestVideo(videos, "Featurette", false);
-        }
-        if (trailer != null) {
-            String trailerUrl = YOUTUBE_VIDEO_BASE_URL + trailer.getKey();
-            log.info("Found YouTube trailer for movie {}: {}", movieId, trailerUrl);
-            return ResponseEntity.ok(trailerUrl);
+    /**
+     * Retrieves the YouTube trailer URLs of several movies in a single request. The movies are resolved
+     * concurrently through the movie details cache, within the same deadline as a deck.
+     *
+     * @param request the request containing the language and the IDs of the movies, at most
+     *                {@code MAX_TRAILERS_PER_REQUEST} of them
+     * @return a future of a ResponseEntity containing a map from movie ID to YouTube trailer URL, holding only the
+     * movies for which a suitable trailer was found
+     */
+    public CompletableFuture<ResponseEntity<Map<Integer, String>>> getYoutubeTrailers(TrailersRequest request) {
+        if (request.movieIds() == null || request.movieIds().size() > MAX_TRAILERS_PER_REQUEST) {
+            throw new IllegalArgumentException(format("Between 0 and %s movie IDs must be provided",
+                    MAX_TRAILERS_PER_REQUEST));
         }
-        log.warn("No suitable YouTube trailer found for movie {}", movieId);
-        return ResponseEntity.notFound().build();
+
+        List<CompletableFuture<MovieResponse>> movieResponseFutures = request.movieIds().stream()
+                .distinct()
+                .map(movieId -> movieDetailsCache.get(movieId, request.language()))
+                .toList();
+
+        return collectCompletedInOrder(movieResponseFutures).thenApply(movieResponses -> {
+            Map<Integer, String> trailerUrlsByMovieId = new LinkedHashMap<>();
+            for (MovieResponse movieResponse : movieResponses) {
+                if (movieResponse.youtubeTrailer() != null) {
+                    trailerUrlsByMovieId.put(movieResponse.id(), movieResponse.youtubeTrailer());
+                }
+            }
+            log.info("Found {} YouTube trailers for {} movies", trailerUrlsByMovieId.size(), request.movieIds().size());
+            return ResponseEntity.ok(trailerUrlsByMovieId);
+        });
     }
 
     /**
-     * Retrieves a list of popular watch providers for a given region and language.
+     * Fetches a list of popular watch providers for a given region and language from the TMDB API.
      *
      * @param watchRegion the region for which to retrieve watch providers (e.g., "US", "UK").
      * @param language    the language in which the watch provider information should be retrieved (e.g., "en-US").
-     * @return a ResponseEntity containing a list of ProviderResponse objects, representing the watch providers.
+     * @return a list of ProviderResponse objects, representing the watch providers.
      * @throws TmdbException if an error occurs while fetching watch provider data from the TMDb API.
      */
-    public ResponseEntity<List<ProviderResponse>> getWatchProviders(String watchRegion, String language) throws TmdbException {
-        ProviderResults providerResults = tmdbApi.getWatchProviders()
-                .getMovieProviders(language, watchRegion);
+    public List<ProviderResponse> fetchWatchProviders(String watchRegion, String language) throws TmdbException {
+        ProviderResults providerResults = tmdbGovernor.call("watch-providers",
+                () -> tmdbApi.getWatchProviders().getMovieProviders(language, watchRegion));
         List<ProviderResponse> providerResponses = providerResults.getResults().stream()
                 .sorted(Comparator.comparingInt(Provider::getDisplayPriority))
                 .filter(provider -> POPULAR_WATCH_PROVIDER_NAMES.contains(provider.getProviderName()))
@@ -176,77 +264,189 @@ public class TmdbService {
                 .toList();
         log.info("Successfully retrieved {} watch providers for region {} and language {}",
                 providerResponses.size(), watchRegion, language);
-        return ResponseEntity.ok(providerResponses);
+        return providerResponses;
     }
 
     /**
-     * Retrieves a list of genres from the TMDB API and maps them to GenreResponse objects.
+     * Fetches a list of genres from the TMDB API and maps them to GenreResponse objects.
      *
-     * @return a ResponseEntity containing a list of GenreResponse objects representing movie genres
+     * @return a list of GenreResponse objects representing movie genres
      * @throws TmdbException if there is an error while fetching genres from the TMDB API
      */
-    public ResponseEntity<List<GenreResponse>> getGenresResponse() throws TmdbException {
-        List<GenreResponse> genreResponses = tmdbApi.getGenre().getMovieList(EN_LANGUAGE_CODE).stream()
+    public List<GenreResponse> fetchGenres() throws TmdbException {
+        List<Genre> genres = tmdbGovernor.call("genres", () -> tmdbApi.getGenre().getMovieList(EN_LANGUAGE_CODE));
+        List<GenreResponse> genreResponses = genres.stream()
                 .map(GenreResponse::fromGenre)
                 .toList();
         log.info("Successfully retrieved {} genres", genreResponses.size());
-        return ResponseEntity.ok(genreResponses);
+        return genreResponses;
+    }
+
+    /**
+     * Retrieves the hit, miss and eviction counters of the in-memory TMDB caches, along with the number of gets
+     * that were coalesced into a load already in flight.
+     *
+     * @return a ResponseEntity containing the statistics of every TMDB cache
+     */
+    public ResponseEntity<List<CacheStatsResponse>> getCacheStats() {
+        List<CacheStatsResponse> cacheStatsResponses = new ArrayList<>();
+        cacheStatsResponses.add(movieDetailsCache.getStats());
+        cacheStatsResponses.addAll(discoverCache.getStats());
+        return ResponseEntity.ok(cacheStatsResponses);
+    }
+
+    /**
+     * Retrieves the state of the TMDB call governor: circuit breaker state, call counters,
+     * free concurrency slots, and queue time and latency of the permitted calls.
+     *
+     * @return a ResponseEntity containing the statistics of the TMDB call governor
+     */
+    public ResponseEntity<TmdbGovernorStatsResponse> getGovernorStats() {
+        return ResponseEntity.ok(tmdbGovernor.getStats());
     }
 
-    private MovieDb getMovieById(Integer id, String language) {
-        try {
-            return tmdbApi.getMovies().getDetails(id, language);
-        } catch (TmdbException e) {
-            log.error("Failed to fetch movie details for ID {}: {}", id, e.getMessage());
-            throw new RuntimeException(e);
+    // Loads a movie missing from the cache, from the catalog if it was fetched recently enough
+    private CompletableFuture<MovieResponse> loadMovieResponse(Integer movieId, String language) {
+        Optional<MovieResponse> catalogMovieResponse = movieCatalog.findFresh(movieId, language);
+        if (catalogMovieResponse.isPresent()) {
+            return CompletableFuture.completedFuture(catalogMovieResponse.get());
         }
+        return fetchMovieResponse(movieId, language);
     }
 
-    private MovieResultsPage getMovieResultsPageFromDiscover(Integer page, String language,
-                                                             List<Integer> genres, String watchRegion,
-                                                             List<Integer> watchProviders) {
-        try {
-            TmdbDiscover tmdbDiscover = tmdbApi.getDiscover();
-            DiscoverMovieParamBuilder discoverMovieParamBuilder = new DiscoverMovieParamBuilder()
-                    .includeAdult(false)
-                    .includeVideo(false)
-                    .language(language)
-                    .page(page)
-                    .sortBy(DISCOVER_SORT_BY);
-            if (genres != null && !genres.isEmpty()) {
-                discoverMovieParamBuilder.withGenres(genres, true);
-            }
-            if (watchRegion != null && !watchRegion.isBlank()) {
-                discoverMovieParamBuilder.watchRegion(watchRegion);
-            }
-            if (watchProviders != null && !watchProviders.isEmpty()) {
-                discoverMovieParamBuilder.withWatchProviders(watchProviders, true);
-            }
-            return tmdbDiscover.getMovie(discoverMovieParamBuilder);
-        } catch (TmdbException e) {
-            log.error("Failed to retrieve movies from discover page {}: {}", page, e.getMessage());
-            throw new RuntimeException(e);
+    // Fetches a movie from TMDB, also when the cache reloads a stale entry, falling back to the catalog on failure
+    private CompletableFuture<MovieResponse> fetchMovieResponse(Integer movieId, String language) {
+        return getMovieById(movieId, language)
+                .thenApply(movieDb -> {
+                    String youtubeTrailer = movieDb.getVideos() != null ?
+                            findYoutubeTrailerUrl(movieDb.getVideos().getResults()) : null;
+                    MovieResponse movieResponse = MovieResponse.fromMovie(movieDb, youtubeTrailer);
+                    movieCatalog.append(movieResponse, language);
+                    return movieResponse;
+                })
+                .exceptionally(e -> {
+                    CompletionException completionException = e instanceof CompletionException ce ?
+                            ce : new CompletionException(e);
+                    log.warn("Failed to fetch movie {} from TMDB, falling back to the catalog: {}",
+                            movieId, completionException.getCause().getMessage());
+                    return movieCatalog.find(movieId, language)
+                            .orElseThrow(() -> toMovieDetailsException(movieId, completionException));
+                });
+    }
+
+    private RuntimeException toMovieDetailsException(Integer movieId, CompletionException completionException) {
+        if (completionException.getCause() instanceof TmdbStatusException statusException
+                && statusException.isNotFound()) {
+            return new MovieNotFoundException(format("Movie %s not found on TMDB", movieId));
+        }
+        return completionException;
+    }
+
+    // Only called as the loaders of the movie details and discover caches, which already collapse concurrent
+    // requests for the same key into one call
+    private CompletableFuture<MovieDb> getMovieById(Integer id, String language) {
+        return tmdbGovernor.callAsync("movie-details", () -> tmdbHttpClient.getMovieDetails(id, language));
+    }
+
+    private CompletableFuture<MovieResultsPage> getMovieResultsPageFromDiscover(Integer page, DiscoverFilter filter) {
+        return tmdbGovernor.callAsync("discover", () -> tmdbHttpClient.discoverMovies(page, filter));
+    }
+
+    /**
+     * Checks that a deck whose fetch deadline passed can be served. It can as long as one of its movies resolved,
+     * or some are still pending and are served as placeholders; a deck none of whose movies could be fetched fails.
+     *
+     * @param deck the movies of the deck
+     * @param seed the seed of the deck
+     * @throws TmdbUnavailableException if no movie resolved and the governor rejected some, so the client backs off
+     * @throws MovieNotFoundException   if every movie of the deck failed
+     */
+    public void checkDeckFetched(List<DeckMovie> deck, String seed) {
+        if (deck.stream().anyMatch(DeckMovie::isResolved)) {
+            return;
+        }
+        TmdbUnavailableException unavailableException = deck.stream()
+                .map(DeckMovie::details)
+                .filter(future -> future.state() == Future.State.FAILED)
+                .map(CompletableFuture::exceptionNow)
+                .filter(TmdbUnavailableException.class::isInstance)
+                .map(TmdbUnavailableException.class::cast)
+                .findFirst()
+                .orElse(null);
+        if (unavailableException != null) {
+            throw unavailableException;
+        }
+        if (!deck.isEmpty() && deck.stream().allMatch(movie -> movie.details().state() == Future.State.FAILED)) {
+            throw new MovieNotFoundException(format("Movie details could not be fetched for seed %s", seed));
         }
     }
 
-    private List<MovieResponse> getMovieResponseListFromMovieResultsPage(MovieResultsPage movieResultsPage,
-                                                                         String language,
-                                                                         Random random) {
+    private List<DeckMovie> getDeckFromDiscoverPage(MovieResultsPage movieResultsPage, String seed, int discoverPage,
+                                                    String language, Random random) {
+        if (movieResultsPage == null) {
+            log.warn("Failed to fetch movies from discover for seed {} (page {})", seed, discoverPage);
+            return Collections.emptyList();
+        }
         if (movieResultsPage.getResults() == null) {
             throw new MovieNotFoundException(format("Movies not found on discover page %s", movieResultsPage.getId()));
         }
-        List<Integer> movieIdList = movieResultsPage.getResults().stream()
-                .map(IdElement::getId)
+        List<Movie> movies = movieResultsPage.getResults();
+
+        List<Integer> randomNumbers = getRandomNumbersFromEnumeration(random, movies.size());
+
+        return randomNumbers.stream()
+                .map(movies::get)
+                .map(movie -> new DeckMovie(MovieResponse.fromMovie(movie),
+                        movieDetailsCache.get(movie.getId(), language)))
                 .toList();
+    }
 
-        List<Integer> randomNumbers = getRandomNumbersFromEnumeration(random, movieResultsPage.getResults().size());
+    /**
+     * Waits without blocking for all the given futures until {@code DECK_FETCH_TIMEOUT} elapses and returns the
+     * results of the ones that completed successfully, in the order of the input list. Futures that failed are
+     * skipped, and the ones still running when the deadline is reached are left to finish into the cache, so a
+     * single slow movie cannot hold back all the others.
+     *
+     * @param futures the futures of the movie details
+     * @return a future of the successfully fetched results, keeping the order of the input futures
+     */
+    private <T> CompletableFuture<List<T>> collectCompletedInOrder(List<CompletableFuture<T>> futures) {
+        return awaitDeckFetchDeadline(futures).thenApply(ignored -> {
+            List<T> results = new ArrayList<>();
+            for (CompletableFuture<T> future : futures) {
+                if (future.state() == Future.State.SUCCESS) {
+                    results.add(future.resultNow());
+                }
+            }
+            return results;
+        });
+    }
 
-        List<MovieResponse> movieResponseList = new ArrayList<>();
-        for (Integer index : randomNumbers) {
-            MovieDb movieDb = getMovieById(movieIdList.get(index), language);
-            movieResponseList.add(MovieResponse.fromMovie(movieDb));
-        }
-        return movieResponseList;
+    /**
+     * Waits without blocking until all the given futures completed or {@code DECK_FETCH_TIMEOUT} elapsed, whichever
+     * comes first. The futures themselves are never completed by the deadline, so the ones still running finish
+     * into the cache.
+     *
+     * @param futures the futures of the movie details
+     * @return a future completed on a thread of the TMDB executor once the wait is over
+     */
+    private CompletableFuture<Void> awaitDeckFetchDeadline(List<? extends CompletableFuture<?>> futures) {
+        return CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new))
+                .handle((ignored, error) -> {
+                    if (error != null) {
+                        log.warn("Some movie details could not be fetched: {}", error.getCause() != null ?
+                                error.getCause().getMessage() : error.getMessage());
+                    }
+                    return true;
+                })
+                .completeOnTimeout(false, DECK_FETCH_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS)
+                // Moves off the timer thread when the deadline completed the wait
+                .thenAcceptAsync(completedInTime -> {
+                    if (!completedInTime) {
+                        log.warn("Deck fetch deadline of {} ms reached, returning the movies fetched so far",
+                                DECK_FETCH_TIMEOUT.toMillis());
+                    }
+                }, tmdbExecutor);
     }
 
     private List<Integer> getRandomNumbersFromEnumeration(Random random, Integer movieResultsPageSize) {
@@ -269,6 +469,21 @@ public class TmdbService {
         return randomNumbers;
     }
 
+    private String findYoutubeTrailerUrl(List<Video> videos) {
+        if (videos == null) {
+            return null;
+        }
+
+        Video trailer = findBestVideo(videos, "Trailer", true);
+        if (trailer == null) {
+            trailer = findBestVideo(videos, "Trailer", false);
+        }
+        if (trailer == null) {
+            trailer = findBestVideo(videos, "Featurette", false);
+        }
+        return trailer != null ? YOUTUBE_VIDEO_BASE_URL + trailer.getKey() : null;
+    }
+
     private Video findBestVideo(List<Video> videos, String type, boolean requireOfficial) {
         return videos.stream()
                 .sorted((v1, v2) -> v2.getSize().compareTo(v1.getSize()))
@@ -278,4 +493,18 @@ public class TmdbService {
                 .findFirst()
                 .orElse(null);
     }
+
+    /**
+     * A movie of a deck: the future of its details, and the placeholder built from its discover entry that stands
+     * in for them when they fail or are still pending at {@code DECK_FETCH_TIMEOUT}.
+     */
+    public record DeckMovie(MovieResponse placeholder, CompletableFuture<MovieResponse> details) {
+        public boolean isResolved() {
+            return details.state() == Future.State.SUCCESS;
+        }
+
+        public MovieResponse resolvedOrPlaceholder() {
+            return isResolved() ? details.resultNow() : placeholder;
+        }
+    }
 }
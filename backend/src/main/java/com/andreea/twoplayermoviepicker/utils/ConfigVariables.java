@@ -2,8 +2,43 @@ package com.andreea.twoplayermoviepicker.utils;
 
 import info.movito.themoviedbapi.tools.sortby.DiscoverMovieSortBy;
 
+import java.time.Duration;
+
 public class ConfigVariables {
     public static final Integer MAX_DISCOVER_PAGE = 300;
     public static final DiscoverMovieSortBy DISCOVER_SORT_BY = DiscoverMovieSortBy.POPULARITY_DESC;
     public static final Integer MOVIES_FETCHED_FROM_DISCOVER = 10;
+    public static final Duration DECK_FETCH_TIMEOUT = Duration.ofSeconds(4);
+    public static final Duration DECK_STREAM_TIMEOUT = Duration.ofSeconds(15);
+    public static final Long MOVIE_DETAILS_CACHE_MAX_SIZE = 10_000L;
+    public static final Duration MOVIE_DETAILS_CACHE_EXPIRE_AFTER = Duration.ofHours(24);
+    public static final Duration MOVIE_DETAILS_CACHE_REFRESH_AFTER = Duration.ofHours(6);
+    public static final Long DISCOVER_PAGE_CACHE_MAX_SIZE = 2_000L;
+    public static final Duration DISCOVER_PAGE_CACHE_EXPIRE_AFTER = Duration.ofHours(1);
+    public static final Long TOTAL_PAGES_CACHE_MAX_SIZE = 5_000L;
+    public static final Duration TOTAL_PAGES_CACHE_EXPIRE_AFTER = Duration.ofHours(24);
+    public static final Integer MAX_PREFETCHES_PER_ROOM = 2;
+    public static final Duration PREFETCH_ROOM_IDLE_AFTER = Duration.ofMinutes(5);
+    public static final Integer MOVIE_CATALOG_MAX_SIZE_BYTES = 256 * 1024 * 1024;
+    public static final Duration MOVIE_CATALOG_FRESH_FOR = Duration.ofDays(7);
+    public static final Integer MAX_TRAILERS_PER_REQUEST = 50;
+    public static final Duration GENRES_MAX_AGE = Duration.ofDays(1);
+    public static final Duration WATCH_PROVIDERS_MAX_AGE = Duration.ofHours(6);
+    public static final Long WATCH_PROVIDERS_MAX_ENTRIES = 1_000L;
+    public static final Duration TMDB_CONNECT_TIMEOUT = Duration.ofSeconds(2);
+    public static final Duration TMDB_REQUEST_TIMEOUT = Duration.ofSeconds(4);
+    public static final Integer TMDB_RATE_LIMIT_PER_SECOND = 40;
+    public static final Integer TMDB_MAX_CONCURRENT_CALLS = 20;
+    public static final Duration TMDB_MAX_QUEUE_TIME = Duration.ofSeconds(2);
+    public static final Integer TMDB_CIRCUIT_FAILURE_THRESHOLD = 10;
+    public static final Duration TMDB_CIRCUIT_OPEN_DURATION = Duration.ofSeconds(15);
+    public static final Duration HOT_ROOM_IDLE_AFTER = Duration.ofMinutes(10);
+    public static final Duration ROOM_LIFETIME = Duration.ofHours(24);
+    public static final Integer ROOM_SWEEP_BATCH_SIZE = 500;
+    public static final Duration REPLICA_MAX_LAG = Duration.ofSeconds(2);
+    public static final Integer ROOM_CODE_ALLOCATION_ATTEMPTS = 3;
+    public static final Integer MAX_SWIPES_PER_BATCH = 100;
+    public static final Duration ROOM_EVENTS_TIMEOUT = Duration.ofMinutes(30);
+    public static final Integer ROOM_EVENTS_MAX_PENDING = 32;
+    public static final Duration COMMON_LIKES_LONG_POLL_TIMEOUT = Duration.ofSeconds(25);
 }
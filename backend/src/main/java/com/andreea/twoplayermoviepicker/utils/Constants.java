@@ -3,6 +3,7 @@ package com.andreea.twoplayermoviepicker.utils;
 import java.util.List;
 
 public class Constants {
+    public static final String TMDB_API_BASE_URL = "https://api.themoviedb.org/3";
     public static final String IMDB_TITLE_BASE_URL = "https://www.imdb.com/title/";
     public static final String TMDB_IMAGE_BASE_URL = "https://image.tmdb.org/t/p/w780";
     public static final String TMDB_LOGO_BASE_URL = "https://image.tmdb.org/t/p/w92";
@@ -14,4 +15,9 @@ public class Constants {
             List.of("Netflix", "Disney Plus", "Amazon Prime Video", "Apple TV+", "Paramount Plus", "Hulu",
                     "Curiosity Stream", "Crunchyroll", "Max");
     public static final String EN_LANGUAGE_CODE = "en";
+    public static final String IMAGE_BASE_URL_HEADER = "Image-Base-Url";
+    public static final String ROOM_CODE_HEADER = "Room-Code";
+    public static final String MATCH_EVENT = "match";
+    public static final String PLAYER_JOINED_EVENT = "player-joined";
+    public static final String PARTNER_ADVANCED_DECK_EVENT = "partner-advanced-deck";
 }
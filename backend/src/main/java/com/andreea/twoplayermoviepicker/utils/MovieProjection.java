@@ -0,0 +1,117 @@
+package com.andreea.twoplayermoviepicker.utils;
+
+import com.andreea.twoplayermoviepicker.response_models.MovieResponse;
+
+import java.lang.reflect.RecordComponent;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static com.andreea.twoplayermoviepicker.utils.Constants.TMDB_IMAGE_BASE_URL;
+import static java.lang.String.format;
+
+public class MovieProjection {
+    public static final String COMPACT = "compact";
+    private static final List<String> COMPACT_FIELDS =
+            List.of("id", "title", "posterUrl", "releaseDate", "runtime", "voteAverage", "genres");
+    private static final Map<String, String> RELATIVE_IMAGE_FIELDS =
+            Map.of("posterUrl", "posterPath", "backdropUrl", "backdropPath");
+    private static final Map<String, RecordComponent> MOVIE_COMPONENTS_BY_NAME =
+            Arrays.stream(MovieResponse.class.getRecordComponents())
+                    .collect(Collectors.toMap(RecordComponent::getName, Function.identity()));
+
+    private final List<RecordComponent> components;
+    private final boolean compact;
+
+    private MovieProjection(List<RecordComponent> components, boolean compact) {
+        this.components = components;
+        this.compact = compact;
+    }
+
+    /**
+     * Parses the requested fields into a projection of movies, so that only those fields are serialized.
+     * The "compact" value selects the fields rendered by the swipe card, and replaces the poster and backdrop URLs
+     * with paths relative to {@code TMDB_IMAGE_BASE_URL}, named posterPath and backdropPath. Parsing happens
+     * before the request is served, so an invalid value is rejected before the room is changed.
+     *
+     * @param fields "compact", or a comma-separated list of MovieResponse field names
+     * @return the projection onto the requested fields, in the requested order
+     * @throws IllegalArgumentException if a requested field does not exist
+     */
+    public static MovieProjection parse(String fields) {
+        boolean compact = COMPACT.equalsIgnoreCase(fields.trim());
+        List<RecordComponent> components = (compact ? COMPACT_FIELDS : Arrays.asList(fields.split(","))).stream()
+                .map(String::trim)
+                .filter(field -> !field.isEmpty())
+                .distinct()
+                .map(MovieProjection::getMovieComponent)
+                .toList();
+        return new MovieProjection(components, compact);
+    }
+
+    public boolean isCompact() {
+        return compact;
+    }
+
+    /**
+     * Projects movies onto the fields of this projection.
+     *
+     * @param movieResponses the movies to project
+     * @return the projected movies, each holding only the requested fields, in the requested order
+     */
+    public List<Map<String, Object>> project(List<MovieResponse> movieResponses) {
+        return movieResponses.stream()
+                .map(this::project)
+                .toList();
+    }
+
+    /**
+     * Projects a movie onto the fields of this projection.
+     *
+     * @param movieResponse the movie to project
+     * @return the projected movie, holding only the requested fields, in the requested order
+     */
+    public Map<String, Object> project(MovieResponse movieResponse) {
+        return projectMovie(movieResponse, components, compact);
+    }
+
+    private static Map<String, Object> projectMovie(MovieResponse movieResponse, List<RecordComponent> components,
+                                                    boolean relativeImagePaths) {
+        Map<String, Object> projectedMovie = new LinkedHashMap<>();
+        for (RecordComponent component : components) {
+            Object value = readComponent(movieResponse, component);
+            if (relativeImagePaths && RELATIVE_IMAGE_FIELDS.containsKey(component.getName())) {
+                projectedMovie.put(RELATIVE_IMAGE_FIELDS.get(component.getName()), toRelativeImagePath((String) value));
+            } else {
+                projectedMovie.put(component.getName(), value);
+            }
+        }
+        return projectedMovie;
+    }
+
+    private static RecordComponent getMovieComponent(String field) {
+        RecordComponent component = MOVIE_COMPONENTS_BY_NAME.get(field);
+        if (component == null) {
+            throw new IllegalArgumentException(format("Unknown movie field %s", field));
+        }
+        return component;
+    }
+
+    private static Object readComponent(MovieResponse movieResponse, RecordComponent component) {
+        try {
+            return component.getAccessor().invoke(movieResponse);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(format("Failed to read movie field %s", component.getName()), e);
+        }
+    }
+
+    private static String toRelativeImagePath(String imageUrl) {
+        if (imageUrl == null || !imageUrl.startsWith(TMDB_IMAGE_BASE_URL)) {
+            return imageUrl;
+        }
+        return imageUrl.substring(TMDB_IMAGE_BASE_URL.length());
+    }
+}
@@ -1,7 +1,32 @@
 package com.andreea.twoplayermoviepicker.utils;
 
+import java.util.Arrays;
+
 public class UtilityMethods {
     public static Boolean isSeedValid(String seed) {
         return seed != null && seed.matches("^[A-Z0-9]{4}$");
     }
+
+    public static Integer seedToInt(String seed) {
+        return Integer.parseInt(seed, 36);
+    }
+
+    public static String intToSeed(Integer seed) {
+        String seedString = Integer.toString(seed, 36).toUpperCase();
+        return "0".repeat(Math.max(0, 4 - seedString.length())) + seedString;
+    }
+
+    public static String toETag(Object value) {
+        return "\"" + Integer.toHexString(value.hashCode()) + "\"";
+    }
+
+    public static Boolean isETagMatching(String ifNoneMatch, String eTag) {
+        if (ifNoneMatch == null || ifNoneMatch.isBlank()) {
+            return false;
+        }
+        return Arrays.stream(ifNoneMatch.split(","))
+                .map(String::trim)
+                .map(tag -> tag.startsWith("W/") ? tag.substring(2) : tag)
+                .anyMatch(tag -> tag.equals("*") || tag.equals(eTag));
+    }
 }
@@ -0,0 +1,24 @@
+-- Schema as it existed before migrations were introduced. Databases created before that point
+-- are baselined at this version, so this script only runs on empty databases.
+CREATE TABLE IF NOT EXISTS sessions
+(
+    id              SERIAL PRIMARY KEY,
+    seed_sequence   VARCHAR(255),
+    common_likes    VARCHAR(255),
+    created_at      TIMESTAMP(6),
+    updated_at      TIMESTAMP(6),
+    genres          VARCHAR(255),
+    watch_region    VARCHAR(255),
+    watch_providers VARCHAR(255)
+);
+
+CREATE TABLE IF NOT EXISTS players
+(
+    id                SERIAL PRIMARY KEY,
+    player_session_id VARCHAR(255) UNIQUE,
+    session_id        INTEGER REFERENCES sessions (id),
+    likes             VARCHAR(255),
+    created_at        TIMESTAMP(6),
+    updated_at        TIMESTAMP(6),
+    seed_index        INTEGER DEFAULT 0
+);
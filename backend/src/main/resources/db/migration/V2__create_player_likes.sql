@@ -0,0 +1,18 @@
+CREATE TABLE player_likes
+(
+    player_id  INTEGER      NOT NULL REFERENCES players (id) ON DELETE CASCADE,
+    movie_id   INTEGER      NOT NULL,
+    created_at TIMESTAMP(6) NOT NULL DEFAULT now(),
+    PRIMARY KEY (player_id, movie_id)
+);
+
+INSERT INTO player_likes (player_id, movie_id)
+SELECT players.id, CAST(liked.movie_id AS INTEGER)
+FROM players
+         CROSS JOIN LATERAL unnest(string_to_array(players.likes, ',')) AS liked(movie_id)
+WHERE players.likes IS NOT NULL
+  AND players.likes <> ''
+ON CONFLICT DO NOTHING;
+
+ALTER TABLE players
+    DROP COLUMN likes;
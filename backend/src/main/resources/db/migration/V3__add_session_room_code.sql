@@ -0,0 +1,14 @@
+ALTER TABLE sessions
+    ADD COLUMN room_code VARCHAR(4);
+
+-- If several existing sessions share a first seed, only the most recent one keeps it as room code,
+-- matching the session that was in practice reachable through that seed
+UPDATE sessions
+SET room_code = split_part(seed_sequence, ',', 1)
+WHERE id IN (SELECT DISTINCT ON (split_part(seed_sequence, ',', 1)) id
+             FROM sessions
+             WHERE seed_sequence IS NOT NULL
+               AND seed_sequence <> ''
+             ORDER BY split_part(seed_sequence, ',', 1), id DESC);
+
+CREATE UNIQUE INDEX sessions_room_code_idx ON sessions (room_code);
@@ -0,0 +1,28 @@
+CREATE TABLE session_seeds
+(
+    session_id INTEGER NOT NULL REFERENCES sessions (id) ON DELETE CASCADE,
+    seed_index INTEGER NOT NULL,
+    seed       INTEGER NOT NULL,
+    PRIMARY KEY (session_id, seed_index)
+);
+
+-- Seeds are 4-character base-36 strings, stored as their integer value
+INSERT INTO session_seeds (session_id, seed_index, seed)
+SELECT sessions.id,
+       seeds.ordinality - 1,
+       (SELECT SUM((strpos('0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZ', upper(substr(seeds.seed, digit, 1))) - 1)
+                       * power(36, length(seeds.seed) - digit))::INTEGER
+        FROM generate_series(1, length(seeds.seed)) AS digit)
+FROM sessions
+         CROSS JOIN LATERAL unnest(string_to_array(sessions.seed_sequence, ',')) WITH ORDINALITY AS seeds(seed, ordinality)
+WHERE sessions.seed_sequence IS NOT NULL
+  AND sessions.seed_sequence <> '';
+
+ALTER TABLE sessions
+    ADD COLUMN seed_count INTEGER NOT NULL DEFAULT 0;
+
+UPDATE sessions
+SET seed_count = (SELECT count(*) FROM session_seeds WHERE session_seeds.session_id = sessions.id);
+
+ALTER TABLE sessions
+    DROP COLUMN seed_sequence;
@@ -0,0 +1,18 @@
+CREATE TABLE session_common_likes
+(
+    session_id INTEGER      NOT NULL REFERENCES sessions (id) ON DELETE CASCADE,
+    movie_id   INTEGER      NOT NULL,
+    created_at TIMESTAMP(6) NOT NULL DEFAULT now(),
+    PRIMARY KEY (session_id, movie_id)
+);
+
+INSERT INTO session_common_likes (session_id, movie_id)
+SELECT sessions.id, CAST(liked.movie_id AS INTEGER)
+FROM sessions
+         CROSS JOIN LATERAL unnest(string_to_array(sessions.common_likes, ',')) AS liked(movie_id)
+WHERE sessions.common_likes IS NOT NULL
+  AND sessions.common_likes <> ''
+ON CONFLICT DO NOTHING;
+
+ALTER TABLE sessions
+    DROP COLUMN common_likes;
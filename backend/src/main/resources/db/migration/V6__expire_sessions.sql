@@ -0,0 +1,24 @@
+-- Expired sessions are deleted by the sweeper; their players, seeds and likes go with them
+DO
+$$
+    DECLARE
+        foreign_key_name TEXT;
+    BEGIN
+        FOR foreign_key_name IN
+            SELECT conname
+            FROM pg_constraint
+            WHERE conrelid = 'players'::regclass
+              AND confrelid = 'sessions'::regclass
+              AND contype = 'f'
+            LOOP
+                EXECUTE format('ALTER TABLE players DROP CONSTRAINT %I', foreign_key_name);
+            END LOOP;
+    END
+$$;
+
+ALTER TABLE players
+    ADD CONSTRAINT players_session_id_fkey FOREIGN KEY (session_id) REFERENCES sessions (id) ON DELETE CASCADE;
+
+CREATE INDEX IF NOT EXISTS players_session_id_idx ON players (session_id);
+
+CREATE INDEX sessions_last_activity_idx ON sessions ((COALESCE(updated_at, created_at)));
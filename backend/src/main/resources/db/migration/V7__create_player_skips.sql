@@ -0,0 +1,11 @@
+CREATE TABLE player_skips
+(
+    player_id  INTEGER      NOT NULL REFERENCES players (id) ON DELETE CASCADE,
+    movie_id   INTEGER      NOT NULL,
+    created_at TIMESTAMP(6) NOT NULL DEFAULT now(),
+    PRIMARY KEY (player_id, movie_id)
+);
+
+-- Highest client sequence number of the swipes applied for a player, so resent swipe batches are not reapplied
+ALTER TABLE players
+    ADD COLUMN last_swipe_sequence BIGINT NOT NULL DEFAULT 0;
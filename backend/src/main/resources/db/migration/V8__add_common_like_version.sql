@@ -0,0 +1,16 @@
+-- Position of each common like in the match list of its room, the list version that added it, so the list is read
+-- back in the order its versions were handed out
+ALTER TABLE session_common_likes
+    ADD COLUMN version INTEGER;
+
+UPDATE session_common_likes
+SET version = numbered.version
+FROM (SELECT session_id,
+             movie_id,
+             row_number() OVER (PARTITION BY session_id ORDER BY created_at, movie_id) AS version
+      FROM session_common_likes) AS numbered
+WHERE session_common_likes.session_id = numbered.session_id
+  AND session_common_likes.movie_id = numbered.movie_id;
+
+ALTER TABLE session_common_likes
+    ALTER COLUMN version SET NOT NULL;
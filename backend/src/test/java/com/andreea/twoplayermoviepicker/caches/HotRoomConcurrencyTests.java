@@ -0,0 +1,59 @@
+package com.andreea.twoplayermoviepicker.caches;
+
+import org.junit.jupiter.api.RepeatedTest;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Both players of a room like the same movies at the same moment; every movie must be reported as a match
+ * exactly once, and recorded as a common like exactly once, each bumping the version of the list.
+ */
+class HotRoomConcurrencyTests {
+    private static final int MOVIES = 2_000;
+
+    @RepeatedTest(20)
+    void simultaneousLikesNeverLoseOrDuplicateMatches() throws Exception {
+        HotPlayer firstPlayer = new HotPlayer(1, "first", 0, 0, 0);
+        HotPlayer secondPlayer = new HotPlayer(2, "second", 1, 0, 0);
+        HotRoom room = new HotRoom(1, "ABCD", Set.of(), null, Set.of(), new int[]{0},
+                List.of(firstPlayer, secondPlayer), Map.of(), List.of(), new RoomWriteBehind(null, null));
+        CyclicBarrier start = new CyclicBarrier(2);
+
+        try (ExecutorService executor = Executors.newFixedThreadPool(2)) {
+            Future<Integer> firstMatches = executor.submit(() -> likeAll(room, firstPlayer, start));
+            Future<Integer> secondMatches = executor.submit(() -> likeAll(room, secondPlayer, start));
+
+            assertThat(firstMatches.get() + secondMatches.get()).isEqualTo(MOVIES);
+        }
+        HotRoom.CommonLikes commonLikes = room.getCommonLikes();
+        assertThat(commonLikes.version()).isEqualTo(MOVIES);
+        assertThat(commonLikes.movieIds())
+                .hasSize(MOVIES)
+                .doesNotHaveDuplicates();
+    }
+
+    private static int likeAll(HotRoom room, HotPlayer player, CyclicBarrier start) throws Exception {
+        List<Integer> movieIds = new ArrayList<>(IntStream.range(0, MOVIES).boxed().toList());
+        Collections.shuffle(movieIds);
+        start.await();
+
+        int matches = 0;
+        for (Integer movieId : movieIds) {
+            if (room.addLike(player, movieId)) {
+                matches++;
+            }
+        }
+        return matches;
+    }
+}
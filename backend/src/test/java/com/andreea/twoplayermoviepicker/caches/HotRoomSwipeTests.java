@@ -0,0 +1,81 @@
+package com.andreea.twoplayermoviepicker.caches;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The client retries a failed batch of swipes by putting it back in front of the swipes made since, so batches
+ * reach the room out of order and more than once; every swipe must be applied exactly once either way.
+ */
+class HotRoomSwipeTests {
+    private HotPlayer firstPlayer;
+    private HotRoom room;
+
+    @BeforeEach
+    void setUp() {
+        firstPlayer = new HotPlayer(1, "first", 0, 0, 0);
+        HotPlayer secondPlayer = new HotPlayer(2, "second", 1, 0, 0);
+        room = new HotRoom(1, "ABCD", Set.of(), null, Set.of(), new int[]{0},
+                List.of(firstPlayer, secondPlayer), Map.of(), List.of(), new RoomWriteBehind(null, null));
+        List.of(10, 20, 30, 40).forEach(movieId -> room.addLike(secondPlayer, movieId));
+    }
+
+    @Test
+    void retriedEarlierBatchIsAppliedAfterLaterBatch() {
+        List<Integer> laterMatches = room.applySwipes(firstPlayer, List.of(like(3, 30), like(4, 40)));
+        List<Integer> earlierMatches = room.applySwipes(firstPlayer, List.of(like(1, 10), like(2, 20)));
+
+        assertThat(laterMatches).containsExactly(30, 40);
+        assertThat(earlierMatches).containsExactly(10, 20);
+        assertThat(room.getCommonLikes().movieIds()).containsExactly(30, 40, 10, 20);
+        assertThat(firstPlayer.getLastSwipeSequence()).isEqualTo(4);
+    }
+
+    @Test
+    void duplicateBatchIsAppliedOnce() {
+        List<HotRoom.Swipe> batch = List.of(like(2, 20), skip(1, 50), like(3, 10));
+
+        List<Integer> firstMatches = room.applySwipes(firstPlayer, batch);
+        List<Integer> duplicateMatches = room.applySwipes(firstPlayer, batch);
+
+        assertThat(firstMatches).containsExactly(20, 10);
+        assertThat(duplicateMatches).isEmpty();
+        assertThat(room.getCommonLikes().version()).isEqualTo(2);
+        assertThat(firstPlayer.getLastSwipeSequence()).isEqualTo(3);
+    }
+
+    @Test
+    void batchOverlappingAppliedSwipesAppliesOnlyNewOnes() {
+        room.applySwipes(firstPlayer, List.of(like(1, 10), like(2, 20)));
+
+        List<Integer> matches = room.applySwipes(firstPlayer, List.of(like(2, 20), like(3, 30), like(1, 10)));
+
+        assertThat(matches).containsExactly(30);
+        assertThat(room.getCommonLikes().movieIds()).containsExactly(10, 20, 30);
+    }
+
+    @Test
+    void batchLikingMovieAlreadyLikedOnItsOwnIsApplied() {
+        room.addLike(firstPlayer, 20);
+
+        List<Integer> matches = room.applySwipes(firstPlayer, List.of(like(1, 10), like(2, 20), like(3, 30)));
+
+        assertThat(matches).containsExactly(10, 30);
+        assertThat(room.getCommonLikes().movieIds()).containsExactly(20, 10, 30);
+        assertThat(firstPlayer.getLastSwipeSequence()).isEqualTo(3);
+    }
+
+    private static HotRoom.Swipe like(long sequence, Integer movieId) {
+        return new HotRoom.Swipe(sequence, true, movieId);
+    }
+
+    private static HotRoom.Swipe skip(long sequence, Integer movieId) {
+        return new HotRoom.Swipe(sequence, false, movieId);
+    }
+}
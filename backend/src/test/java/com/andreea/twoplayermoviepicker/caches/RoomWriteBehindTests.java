@@ -0,0 +1,83 @@
+package com.andreea.twoplayermoviepicker.caches;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Set;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * An evicted room is only read back from the database once its buffered changes are written, so the changes of a
+ * failed flush must stay visible as pending for the room they belong to.
+ */
+class RoomWriteBehindTests {
+    private final FlakyTransactionTemplate transactionTemplate = new FlakyTransactionTemplate();
+    private final RoomWriteBehind roomWriteBehind = new RoomWriteBehind(null, transactionTemplate);
+
+    @Test
+    void failedFlushKeepsChangesPendingUntilTheNextFlushWritesThem() {
+        roomWriteBehind.recordLike(10, 100);
+
+        transactionTemplate.failing = true;
+        roomWriteBehind.flush();
+        assertThat(roomWriteBehind.hasPendingWrites(1, Set.of(10, 11))).isTrue();
+
+        transactionTemplate.failing = false;
+        roomWriteBehind.flush();
+        assertThat(roomWriteBehind.hasPendingWrites(1, Set.of(10, 11))).isFalse();
+    }
+
+    @Test
+    void changesOfOtherRoomsAreNotPendingForTheRoom() {
+        roomWriteBehind.recordSeed(2, 1, 1234);
+        roomWriteBehind.recordSkip(20, 200);
+
+        transactionTemplate.failing = true;
+        roomWriteBehind.flush();
+
+        assertThat(roomWriteBehind.hasPendingWrites(1, Set.of(10, 11))).isFalse();
+        assertThat(roomWriteBehind.hasPendingWrites(2, Set.of())).isTrue();
+        assertThat(roomWriteBehind.hasPendingWrites(3, Set.of(20))).isTrue();
+    }
+
+    @Test
+    void roomFlushWritesOnlyTheChangesOfThatRoom() {
+        roomWriteBehind.recordLike(10, 100);
+        roomWriteBehind.recordSessionActivity(1);
+        roomWriteBehind.recordSkip(20, 200);
+        roomWriteBehind.recordSessionActivity(2);
+
+        assertThat(roomWriteBehind.flushRoom(1, Set.of(10, 11))).isTrue();
+
+        assertThat(roomWriteBehind.hasPendingWrites(1, Set.of(10, 11))).isFalse();
+        assertThat(roomWriteBehind.hasPendingWrites(2, Set.of(20))).isTrue();
+    }
+
+    @Test
+    void failedRoomFlushKeepsTheChangesOfThatRoomPending() {
+        roomWriteBehind.recordLike(10, 100);
+
+        transactionTemplate.failing = true;
+
+        assertThat(roomWriteBehind.flushRoom(1, Set.of(10, 11))).isFalse();
+        assertThat(roomWriteBehind.hasPendingWrites(1, Set.of(10, 11))).isTrue();
+    }
+
+    /**
+     * Fails every flush while failing is set, and otherwise reports the flush as written without a database.
+     */
+    private static class FlakyTransactionTemplate extends TransactionTemplate {
+        private boolean failing;
+
+        @Override
+        public void executeWithoutResult(Consumer<TransactionStatus> action) {
+            if (failing) {
+                throw new DataAccessResourceFailureException("Database unavailable");
+            }
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.andreea.twoplayermoviepicker.configs;
+
+import com.andreea.twoplayermoviepicker.services.ReplicaLagMonitor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Read-only connections must come from the replica while it is usable and from the primary otherwise, and every
+ * other connection must come from the primary.
+ */
+class DataSourceConfigurationTests {
+    private final DataSource primaryDataSource = mock(DataSource.class);
+    private final DataSource replicaDataSource = mock(DataSource.class);
+    private final ReplicaLagMonitor replicaLagMonitor = mock(ReplicaLagMonitor.class);
+    private DataSource dataSource;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        when(primaryDataSource.getConnection()).thenReturn(mock(Connection.class));
+        when(replicaDataSource.getConnection()).thenReturn(mock(Connection.class));
+        dataSource = new DataSourceConfiguration().dataSource(primaryDataSource, replicaDataSource, replicaLagMonitor);
+    }
+
+    @Test
+    void readOnlyConnectionsUseTheUsableReplica() throws SQLException {
+        when(replicaLagMonitor.isReplicaUsable()).thenReturn(true);
+
+        openConnection(true);
+
+        verify(replicaDataSource).getConnection();
+    }
+
+    @Test
+    void readOnlyConnectionsFallBackToThePrimaryWhenTheReplicaLags() throws SQLException {
+        when(replicaLagMonitor.isReplicaUsable()).thenReturn(false);
+
+        openConnection(true);
+
+        verify(replicaDataSource, never()).getConnection();
+    }
+
+    @Test
+    void readWriteConnectionsUseThePrimary() throws SQLException {
+        when(replicaLagMonitor.isReplicaUsable()).thenReturn(true);
+
+        openConnection(false);
+
+        verify(replicaDataSource, never()).getConnection();
+    }
+
+    private void openConnection(boolean readOnly) throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setReadOnly(readOnly);
+            // The target connection is only fetched once a statement is created
+            connection.createStatement();
+        }
+    }
+}
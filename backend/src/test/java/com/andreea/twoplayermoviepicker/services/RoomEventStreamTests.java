@@ -0,0 +1,135 @@
+package com.andreea.twoplayermoviepicker.services;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Events of one player's stream must reach the client in the order they were published, and a client that stops
+ * reading must not pile up threads blocked on its connection.
+ */
+class RoomEventStreamTests {
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    @AfterEach
+    void tearDown() {
+        executor.close();
+    }
+
+    @Test
+    void eventsAreSentInPublishOrderByOneSender() throws InterruptedException {
+        RecordingEmitter emitter = new RecordingEmitter(new CountDownLatch(0));
+        RoomEventStream stream = new RoomEventStream(emitter, executor, 1000, error -> {
+        });
+
+        List<SseEmitter.SseEventBuilder> published = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            SseEmitter.SseEventBuilder event = SseEmitter.event().name("event-" + i);
+            published.add(event);
+            stream.send(event);
+        }
+        stream.complete();
+
+        assertThat(emitter.completed.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(emitter.sent).containsExactlyElementsOf(published);
+        assertThat(emitter.maxConcurrentSends.get()).isEqualTo(1);
+    }
+
+    @Test
+    void stalledClientIsDroppedOnceTooManyEventsArePending() throws InterruptedException {
+        CountDownLatch clientReads = new CountDownLatch(1);
+        RecordingEmitter emitter = new RecordingEmitter(clientReads);
+        AtomicReference<Exception> dropReason = new AtomicReference<>();
+        RoomEventStream stream = new RoomEventStream(emitter, executor, 2, dropReason::set);
+
+        SseEmitter.SseEventBuilder first = SseEmitter.event().name("first");
+        stream.send(first);
+        assertThat(emitter.sendStarted.await(5, TimeUnit.SECONDS)).isTrue();
+        stream.send(SseEmitter.event().name("second"));
+        stream.send(SseEmitter.event().name("third"));
+        assertThat(dropReason.get()).isNull();
+
+        // Queued while the only sender is still blocked on the client, and returns right away
+        stream.send(SseEmitter.event().name("fourth"));
+        assertThat(dropReason.get()).isInstanceOf(IllegalStateException.class);
+
+        clientReads.countDown();
+        assertThat(emitter.completed.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(emitter.error.get()).isSameAs(dropReason.get());
+        assertThat(emitter.sent).containsExactly(first);
+        assertThat(emitter.maxConcurrentSends.get()).isEqualTo(1);
+    }
+
+    @Test
+    void failedSendDropsStreamAndSkipsLaterEvents() throws InterruptedException {
+        RecordingEmitter emitter = new RecordingEmitter(new CountDownLatch(0));
+        AtomicReference<Exception> dropReason = new AtomicReference<>();
+        RoomEventStream stream = new RoomEventStream(emitter, executor, 10, dropReason::set);
+        emitter.complete();
+        emitter.completed = new CountDownLatch(1);
+
+        stream.send(SseEmitter.event().name("first"));
+        assertThat(emitter.completed.await(5, TimeUnit.SECONDS)).isTrue();
+        stream.send(SseEmitter.event().name("second"));
+
+        assertThat(dropReason.get()).isInstanceOf(IllegalStateException.class);
+        assertThat(emitter.error.get()).isSameAs(dropReason.get());
+        assertThat(emitter.sent).isEmpty();
+    }
+
+    private static class RecordingEmitter extends SseEmitter {
+        private final CountDownLatch clientReads;
+        private final CountDownLatch sendStarted = new CountDownLatch(1);
+        private final List<SseEventBuilder> sent = new CopyOnWriteArrayList<>();
+        private final AtomicInteger concurrentSends = new AtomicInteger();
+        private final AtomicInteger maxConcurrentSends = new AtomicInteger();
+        private final AtomicReference<Throwable> error = new AtomicReference<>();
+        private volatile CountDownLatch completed = new CountDownLatch(1);
+        private volatile boolean isComplete;
+
+        private RecordingEmitter(CountDownLatch clientReads) {
+            this.clientReads = clientReads;
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) {
+            if (isComplete) {
+                throw new IllegalStateException("Emitter already completed");
+            }
+            maxConcurrentSends.accumulateAndGet(concurrentSends.incrementAndGet(), Math::max);
+            try {
+                sendStarted.countDown();
+                clientReads.await();
+                sent.add(builder);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                concurrentSends.decrementAndGet();
+            }
+        }
+
+        @Override
+        public void complete() {
+            isComplete = true;
+            completed.countDown();
+        }
+
+        @Override
+        public void completeWithError(Throwable ex) {
+            error.set(ex);
+            complete();
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.andreea.twoplayermoviepicker.services;
+
+import com.andreea.twoplayermoviepicker.caches.RoomRegistry;
+import com.andreea.twoplayermoviepicker.caches.RoomWriteBehind;
+import com.andreea.twoplayermoviepicker.repositories.SessionRepository;
+import com.andreea.twoplayermoviepicker.request_models.RoomRequest;
+import com.andreea.twoplayermoviepicker.request_models.SwipeBatchRequest;
+import com.andreea.twoplayermoviepicker.request_models.SwipeRequest;
+import com.andreea.twoplayermoviepicker.request_models.SwipeType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static com.andreea.twoplayermoviepicker.utils.ConfigVariables.ROOM_LIFETIME;
+import static com.andreea.twoplayermoviepicker.utils.UtilityMethods.intToSeed;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+/**
+ * A room is swept once neither its session nor its players had any activity for {@code ROOM_LIFETIME}; activity
+ * still buffered in memory when the sweep starts keeps the room alive.
+ */
+@SpringBootTest
+class SessionExpiryServiceTests {
+    private static final String BACKDATE_SESSION_SQL =
+            "UPDATE sessions SET created_at = ?, updated_at = ? WHERE room_code = ?";
+
+    @Autowired
+    private SessionExpiryService sessionExpiryService;
+
+    @Autowired
+    private SessionService sessionService;
+
+    @Autowired
+    private SessionRepository sessionRepository;
+
+    @Autowired
+    private RoomRegistry roomRegistry;
+
+    @Autowired
+    private RoomWriteBehind roomWriteBehind;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @MockitoBean
+    private TmdbService tmdbService;
+
+    @MockitoBean
+    private PrefetchService prefetchService;
+
+    private String roomCode;
+    private String playerSessionId;
+
+    @BeforeEach
+    void setUp() {
+        when(tmdbService.getRandomMoviesFromDiscover(any())).thenReturn(CompletableFuture.completedFuture(List.of()));
+        do {
+            roomCode = intToSeed(ThreadLocalRandom.current().nextInt(36 * 36 * 36 * 36));
+        } while (sessionRepository.existsByRoomCode(roomCode));
+        playerSessionId = UUID.randomUUID().toString();
+        sessionService.createRoom(RoomRequest.builder()
+                .seed(roomCode)
+                .playerSessionId(playerSessionId)
+                .language("en-US")
+                .genres(List.of())
+                .watchProviders(List.of())
+                .build()).join();
+        roomWriteBehind.flush();
+    }
+
+    @AfterEach
+    void tearDown() {
+        roomWriteBehind.flush();
+        roomRegistry.evict(roomCode);
+        sessionRepository.findByRoomCode(roomCode).ifPresent(sessionRepository::delete);
+    }
+
+    @Test
+    void sweepDeletesIdleSession() {
+        backdateSession();
+
+        sessionExpiryService.sweepExpiredSessions();
+
+        assertThat(sessionRepository.existsByRoomCode(roomCode)).isFalse();
+        assertThat(roomRegistry.contains(roomCode)).isFalse();
+    }
+
+    @Test
+    void sweepKeepsSessionWhosePlayerIsStillSwiping() {
+        backdateSession();
+
+        sessionService.submitSwipes(new SwipeBatchRequest(roomCode, playerSessionId,
+                List.of(new SwipeRequest(1L, SwipeType.SKIP, 550))));
+        sessionExpiryService.sweepExpiredSessions();
+
+        assertThat(sessionRepository.existsByRoomCode(roomCode)).isTrue();
+    }
+
+    private void backdateSession() {
+        Timestamp idleSince = Timestamp.valueOf(LocalDateTime.now().minus(ROOM_LIFETIME).minusMinutes(1));
+        jdbcTemplate.update(BACKDATE_SESSION_SQL, idleSince, idleSince, roomCode);
+    }
+}
@@ -0,0 +1,197 @@
+package com.andreea.twoplayermoviepicker.services;
+
+import com.andreea.twoplayermoviepicker.caches.RoomRegistry;
+import com.andreea.twoplayermoviepicker.caches.RoomWriteBehind;
+import com.andreea.twoplayermoviepicker.repositories.SessionRepository;
+import com.andreea.twoplayermoviepicker.request_models.LikeRequest;
+import com.andreea.twoplayermoviepicker.request_models.RoomRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.andreea.twoplayermoviepicker.utils.UtilityMethods.intToSeed;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+/**
+ * Fails when a session endpoint issues more SQL statements than its budget, so that
+ * N+1 lookups and repeated room lookups are caught before they reach production.
+ * Statements are counted at the JDBC level, so the JdbcTemplate writes of the write-behind buffer count as well as
+ * the queries of Hibernate.
+ */
+@SpringBootTest
+class SessionServiceQueryBudgetTests {
+    private static final int CREATE_ROOM_BUDGET = 4;
+    private static final int JOIN_ROOM_BUDGET = 3;
+    private static final int COLD_ROOM_BUDGET = 4;
+    // One batch each for the likes, the common likes, the session and the players of the room
+    private static final int ROOM_FLUSH_BUDGET = 4;
+    private static final int HOT_ROOM_BUDGET = 0;
+
+    @Autowired
+    private SessionService sessionService;
+
+    @Autowired
+    private SessionRepository sessionRepository;
+
+    @Autowired
+    private RoomRegistry roomRegistry;
+
+    @Autowired
+    private RoomWriteBehind roomWriteBehind;
+
+    @Autowired
+    private StatementCounter statementCounter;
+
+    @MockitoBean
+    private TmdbService tmdbService;
+
+    @MockitoBean
+    private PrefetchService prefetchService;
+
+    private String roomCode;
+
+    @BeforeEach
+    void setUp() {
+        when(tmdbService.generateSeed(anyString())).thenReturn("0001");
+        when(tmdbService.getRandomMoviesFromDiscover(any())).thenReturn(CompletableFuture.completedFuture(List.of()));
+        do {
+            roomCode = intToSeed(ThreadLocalRandom.current().nextInt(36 * 36 * 36 * 36));
+        } while (sessionRepository.existsByRoomCode(roomCode));
+    }
+
+    @AfterEach
+    void tearDown() {
+        roomWriteBehind.flush();
+        roomRegistry.evict(roomCode);
+        sessionRepository.findByRoomCode(roomCode).ifPresent(sessionRepository::delete);
+    }
+
+    @Test
+    void sessionEndpointsStayWithinStatementBudget() {
+        String firstPlayerSessionId = UUID.randomUUID().toString();
+        String secondPlayerSessionId = UUID.randomUUID().toString();
+
+        assertStatementBudget("createRoom", CREATE_ROOM_BUDGET,
+                () -> sessionService.createRoom(roomRequest(firstPlayerSessionId)));
+        assertStatementBudget("joinRoom", JOIN_ROOM_BUDGET,
+                () -> sessionService.joinRoom(roomRequest(secondPlayerSessionId)));
+        // Joining evicts the room from memory, so the next request loads it back
+        assertStatementBudget("fetchMoreMovies on a cold room", COLD_ROOM_BUDGET,
+                () -> sessionService.fetchMoreMovies(roomRequest(firstPlayerSessionId)));
+        assertStatementBudget("fetchMoreMovies on a hot room", HOT_ROOM_BUDGET,
+                () -> sessionService.fetchMoreMovies(roomRequest(secondPlayerSessionId)));
+        assertStatementBudget("addToLikesAndReturnIsCommon", HOT_ROOM_BUDGET,
+                () -> sessionService.addToLikesAndReturnIsCommon(new LikeRequest(roomCode, firstPlayerSessionId, 550)));
+        assertStatementBudget("addToLikesAndReturnIsCommon with a match", HOT_ROOM_BUDGET,
+                () -> assertThat(sessionService.addToLikesAndReturnIsCommon(
+                        new LikeRequest(roomCode, secondPlayerSessionId, 550)).getBody()).isTrue());
+        // The likes are still buffered, so loading the evicted room back first writes them
+        roomRegistry.evict(roomCode);
+        assertStatementBudget("fetchMoreMovies on a cold room with pending writes",
+                COLD_ROOM_BUDGET + ROOM_FLUSH_BUDGET,
+                () -> sessionService.fetchMoreMovies(roomRequest(firstPlayerSessionId)));
+    }
+
+    private void assertStatementBudget(String endpoint, int budget, Runnable request) {
+        assertThat(statementCounter.count(request))
+                .as("SQL statements issued by %s", endpoint)
+                .isLessThanOrEqualTo(budget);
+    }
+
+    private RoomRequest roomRequest(String playerSessionId) {
+        return RoomRequest.builder()
+                .seed(roomCode)
+                .playerSessionId(playerSessionId)
+                .language("en-US")
+                .genres(List.of())
+                .watchProviders(List.of())
+                .build();
+    }
+
+    @TestConfiguration
+    static class StatementCountingConfiguration {
+        @Bean
+        static StatementCounter statementCounter() {
+            return new StatementCounter();
+        }
+    }
+
+    /**
+     * Wraps the data source every repository and JdbcTemplate goes through, and counts the statements executed by the
+     * thread that is measured, so the scheduled flushes running in the meantime are left out.
+     */
+    static class StatementCounter implements BeanPostProcessor {
+        private static final Set<Class<?>> PROXIED_TYPES =
+                Set.of(Connection.class, Statement.class, PreparedStatement.class, CallableStatement.class);
+
+        private final AtomicInteger statements = new AtomicInteger();
+        private volatile Thread measuredThread;
+
+        int count(Runnable request) {
+            statements.set(0);
+            measuredThread = Thread.currentThread();
+            try {
+                request.run();
+            } finally {
+                measuredThread = null;
+            }
+            return statements.get();
+        }
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if ("dataSource".equals(beanName) && bean instanceof DataSource dataSource) {
+                return proxy(DataSource.class, dataSource);
+            }
+            return bean;
+        }
+
+        private <T> T proxy(Class<T> type, T target) {
+            return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type},
+                    (proxy, method, args) -> {
+                        Object result;
+                        try {
+                            result = method.invoke(target, args);
+                        } catch (InvocationTargetException e) {
+                            throw e.getCause();
+                        }
+                        if (target instanceof Statement && method.getName().startsWith("execute")
+                                && Thread.currentThread() == measuredThread) {
+                            statements.incrementAndGet();
+                        }
+                        if (result != null && PROXIED_TYPES.contains(method.getReturnType())) {
+                            return proxyAs(method.getReturnType(), result);
+                        }
+                        return result;
+                    }));
+        }
+
+        @SuppressWarnings("unchecked")
+        private <T> Object proxyAs(Class<T> type, Object target) {
+            return proxy(type, (T) target);
+        }
+    }
+}
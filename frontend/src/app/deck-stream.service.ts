@@ -0,0 +1,60 @@
+import { HttpClient, HttpDownloadProgressEvent, HttpEventType } from '@angular/common/http';
+import { Injectable } from '@angular/core';
+import { Observable } from 'rxjs';
+import { Movie } from './models/movie.model';
+
+export interface DeckChunk {
+    roomCode: string | null;
+    movies: Movie[];
+}
+
+@Injectable({
+    providedIn: 'root'
+})
+export class DeckStreamService {
+    constructor(private http: HttpClient) {
+    }
+
+    // Posts to a deck endpoint in streaming mode and emits the movies as the server sends them, one JSON per line
+    streamDeck(url: string, body: object): Observable<DeckChunk> {
+        return new Observable<DeckChunk>(subscriber => {
+            let roomCode: string | null = null;
+            let parsedLength = 0;
+
+            const emitCompleteLines = (text: string, isFinal: boolean) => {
+                const end = isFinal ? text.length : text.lastIndexOf('\n') + 1;
+                if (end <= parsedLength) {
+                    return;
+                }
+                const movies = text.substring(parsedLength, end)
+                    .split('\n')
+                    .filter(line => line.trim() !== '')
+                    .map(line => JSON.parse(line) as Movie);
+                parsedLength = end;
+                if (movies.length > 0) {
+                    subscriber.next({ roomCode: roomCode, movies: movies });
+                }
+            };
+
+            const subscription = this.http.post(`${url}?stream=true`, body, {
+                observe: 'events',
+                reportProgress: true,
+                responseType: 'text'
+            }).subscribe({
+                next: event => {
+                    if (event.type === HttpEventType.ResponseHeader) {
+                        roomCode = event.headers.get('Room-Code');
+                    } else if (event.type === HttpEventType.DownloadProgress) {
+                        emitCompleteLines((event as HttpDownloadProgressEvent).partialText ?? '', false);
+                    } else if (event.type === HttpEventType.Response) {
+                        roomCode = event.headers.get('Room-Code') ?? roomCode;
+                        emitCompleteLines(event.body ?? '', true);
+                        subscriber.complete();
+                    }
+                },
+                error: error => subscriber.error(error)
+            });
+            return () => subscription.unsubscribe();
+        });
+    }
+}
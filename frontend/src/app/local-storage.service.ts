@@ -51,6 +51,23 @@ export class LocalStorageService {
         return JSON.parse(localStorage.getItem('likedIndexes') || '[]');
     }
 
+    setReferenceData<T>(key: string, values: T[], eTag: string | null) {
+        // The values and their ETag are stored together, so the ETag is never sent without the values it describes
+        localStorage.setItem(key, JSON.stringify({ values, eTag }));
+    }
+
+    getReferenceData<T>(key: string): { values: T[], eTag: string | null } {
+        return JSON.parse(localStorage.getItem(key) || '{"values": [], "eTag": null}');
+    }
+
+    nextSwipeSequence(): number {
+        // Based on the clock, so sequence numbers keep increasing even after the storage is cleared
+        const lastSwipeSequence = parseInt(localStorage.getItem('lastSwipeSequence') || '0');
+        const swipeSequence = Math.max(Date.now(), lastSwipeSequence + 1);
+        localStorage.setItem('lastSwipeSequence', swipeSequence.toString());
+        return swipeSequence;
+    }
+
     clearAll() {
         localStorage.clear();
     }
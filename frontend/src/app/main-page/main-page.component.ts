@@ -12,7 +12,9 @@ import { MatIconModule } from '@angular/material/icon';
 import { MatInputModule } from '@angular/material/input';
 import { MatProgressSpinnerModule } from '@angular/material/progress-spinner';
 import { environment } from '../../environments/environment';
+import { DeckStreamService } from '../deck-stream.service';
 import { LocalStorageService } from '../local-storage.service';
+import { Bootstrap } from '../models/bootstrap.model';
 import { Genre } from '../models/genre.model';
 import { Movie } from '../models/movie.model';
 import { WatchProvider } from '../models/watch-provider.model';
@@ -56,7 +58,8 @@ export class MainPageComponent implements OnInit {
 
   inputSeedForm: FormGroup;
 
-  constructor(private fb: FormBuilder, private http: HttpClient, private localStorageService: LocalStorageService) {
+  constructor(private fb: FormBuilder, private http: HttpClient, private localStorageService: LocalStorageService,
+              private deckStreamService: DeckStreamService) {
     this.inputSeedForm = this.fb.group({
       seed: ['', [Validators.required, Validators.pattern(/^[A-Z0-9]{4}$/)]] // 4-character alphanumeric seed
     });
@@ -65,23 +68,46 @@ export class MainPageComponent implements OnInit {
   ngOnInit(): void {
     this.index = this.localStorageService.getIndex(); // Restore session index
     this.seed = this.localStorageService.getSeed(); // Restore session seed
-    this.playerRejoinCheck(); // Determine if rejoin is allowed
-    this.getGenres(); // Get TMDB available genres
-    this.getWatchProviders(); // Get TMDB Watch Providers
     this.locale = navigator.language || (navigator.languages && navigator.languages[0]) || 'en-US';
     this.country = this.locale.includes('-') ? this.locale.split('-')[1] : 'US';
+    this.bootstrap(); // Rejoin status, genres and watch providers in a single request
   }
 
-  generateSeed() {
-    const chars = 'ABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789';
-    let result = '';
-    for (let i = 0; i < 4; i++) {
-      const randomIndex = Math.floor(Math.random() * chars.length);
-      result += chars[randomIndex];
+  bootstrap() {
+    const genresKey = 'genres';
+    const watchProvidersKey = `watchProviders-${this.country}-en-US`;
+    const knownGenres = this.localStorageService.getReferenceData<Genre>(genresKey);
+    const knownWatchProviders = this.localStorageService.getReferenceData<WatchProvider>(watchProvidersKey);
+
+    // The server leaves out the lists whose ETags still match the ones held here
+    let url = `${environment.apiBaseUrl}/api/v1/bootstrap?playerSessionId=${this.localStorageService.getSessionId()}&watchRegion=${this.country}&language=en-US`;
+    if (knownGenres.eTag) {
+      url += `&genresETag=${encodeURIComponent(knownGenres.eTag)}`;
+    }
+    if (knownWatchProviders.eTag) {
+      url += `&watchProvidersETag=${encodeURIComponent(knownWatchProviders.eTag)}`;
     }
-    this.seed = result;
 
-    this.createRoom(); // Start a new session with generated seed
+    this.http.get<Bootstrap>(url).subscribe({
+      next: response => {
+        // Rejoin is only allowed if session has previous index and the seed of the room the server resumes
+        this.canPlayerRejoin = response.canPlayerRejoin && this.index !== 0 && this.seed !== ''
+          && response.roomCode === this.seed;
+        this.genres = response.genres ?? knownGenres.values;
+        this.watchProviders = response.watchProviders ?? knownWatchProviders.values;
+        if (response.genres) {
+          this.localStorageService.setReferenceData(genresKey, response.genres, response.genresETag);
+        }
+        if (response.watchProviders) {
+          this.localStorageService.setReferenceData(watchProvidersKey, response.watchProviders,
+            response.watchProvidersETag);
+        }
+      },
+      error: error => {
+        this.canPlayerRejoin = false;
+        console.error('API Error:', error);
+      }
+    });
   }
 
   inputSeed() {
@@ -98,23 +124,30 @@ export class MainPageComponent implements OnInit {
     this.isFetchingMovies = true;
 
     const url = `${environment.apiBaseUrl}/api/v1/session/create-room`;
+    this.initialMovies = [];
+    this.localStorageService.setIndex(0); // Start from beginning
 
-    this.http.post<Movie[]>(url, {
-      "seed": this.seed,
+    // The room code is allocated by the server and returned in the Room-Code header; the movies arrive one by one,
+    // so the first card shows as soon as it is fetched
+    this.deckStreamService.streamDeck(url, {
       "playerSessionId": this.localStorageService.getSessionId(),
       "language": "en-US", // TODO: make this configurable
       "genres": this.selectedGenresIds,
       "watchRegion": this.country,
       "watchProviders": this.selectedWatchProviderIds
     }).subscribe({
-      next: response => {
-        this.initialMovies = response;
+      next: chunk => {
+        this.seed = chunk.roomCode ?? this.seed;
+        this.initialMovies.push(...chunk.movies);
         this.localStorageService.setMovies(this.initialMovies);
         this.localStorageService.setSeed(this.seed);
-        this.localStorageService.setIndex(0); // Start from beginning
+        this.isFetchingMovies = false;
+      },
+      complete: () => {
         this.isFetchingMovies = false;
       },
       error: error => {
+        this.isFetchingMovies = false;
         console.error('API Error:', error);
       }
     });
@@ -123,39 +156,29 @@ export class MainPageComponent implements OnInit {
   joinRoom() {
     const url = `${environment.apiBaseUrl}/api/v1/session/join-room`;
     this.isFetchingMovies = true;
+    this.initialMovies = [];
+    this.localStorageService.setIndex(0); // Reset index when joining
+    this.localStorageService.setLikedIndexes([]);
 
-    this.http.post<Movie[]>(url, {
+    this.deckStreamService.streamDeck(url, {
       "seed": this.seed,
       "playerSessionId": this.localStorageService.getSessionId(),
       "language": "en-US" // TODO: make this configurable
     }).subscribe({
-      next: response => {
-        this.initialMovies = response;
+      next: chunk => {
+        this.initialMovies.push(...chunk.movies);
         this.localStorageService.setMovies(this.initialMovies);
         this.localStorageService.setSeed(this.seed);
-        this.localStorageService.setIndex(0); // Reset index when joining
-        this.localStorageService.setLikedIndexes([]);
         this.isFetchingMovies = false;
       },
-      error: error => {
-        console.error('API Error:', error);
-      }
-    });
-  }
-
-  playerRejoinCheck() {
-    const url = `${environment.apiBaseUrl}/api/v1/session/can-player-rejoin?playerSessionId=${this.localStorageService.getSessionId()}`;
-
-    this.http.get<boolean>(url).subscribe({
-      next: response => {
-        // Rejoin is only allowed if session has previous index and seed
-        this.canPlayerRejoin = response && this.index !== 0 && this.seed !== '';
+      complete: () => {
+        this.isFetchingMovies = false;
       },
       error: error => {
-        this.canPlayerRejoin = false;
+        this.isFetchingMovies = false;
         console.error('API Error:', error);
       }
-    })
+    });
   }
 
   rejoinRoom() {
@@ -189,30 +212,6 @@ export class MainPageComponent implements OnInit {
     }
   }
 
-  getGenres() {
-    const url = `${environment.apiBaseUrl}/api/v1/tmdb/genres`;
-    this.http.get<Genre[]>(url).subscribe({
-      next: response => {
-        this.genres = response;
-      },
-      error: error => {
-        console.error('API Error:', error);
-      }
-    })
-  }
-
-  getWatchProviders() {
-    const url = `${environment.apiBaseUrl}/api/v1/tmdb/watch-providers/${this.country}/en-US`;
-    this.http.get<WatchProvider[]>(url).subscribe({
-      next: response => {
-        this.watchProviders = response;
-      },
-      error: error => {
-        console.error('API Error:', error);
-      }
-    });
-  }
-
   toggleGenre(id: number) {
     const index = this.selectedGenresIds.indexOf(id);
     if (index > -1) {
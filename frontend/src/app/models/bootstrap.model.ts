@@ -0,0 +1,11 @@
+import { Genre } from './genre.model';
+import { WatchProvider } from './watch-provider.model';
+
+export interface Bootstrap {
+    canPlayerRejoin: boolean;
+    roomCode: string | null;
+    genres: Genre[] | null; // Null when the genres held by the client are still current
+    genresETag: string | null;
+    watchProviders: WatchProvider[] | null; // Null when the watch providers held by the client are still current
+    watchProvidersETag: string | null;
+}
@@ -0,0 +1,6 @@
+export interface CommonLikes {
+    generation: number;
+    version: number;
+    movieIds: number[];
+    resync: boolean;
+}
\ No newline at end of file
@@ -15,6 +15,7 @@ export interface Movie {
     tagline: string;
     title: string;
     tmdbUrl: string;
+    youtubeTrailer: string | null;
     voteAverage: number;
     voteCount: number;
 }
@@ -1,7 +1,7 @@
 import { CdkDragEnd, CdkDragMove, DragDropModule } from '@angular/cdk/drag-drop';
 import { CommonModule } from '@angular/common';
 import { HttpClient } from '@angular/common/http';
-import { Component, EventEmitter, Input, OnInit, Output } from '@angular/core';
+import { Component, EventEmitter, Input, OnDestroy, OnInit, Output } from '@angular/core';
 import { MatButtonModule } from '@angular/material/button';
 import { MatCardModule } from '@angular/material/card';
 import { MatChipsModule } from '@angular/material/chips';
@@ -9,10 +9,11 @@ import { MatDialog, MatDialogModule } from '@angular/material/dialog';
 import { MatGridListModule } from '@angular/material/grid-list';
 import { MatIconModule } from '@angular/material/icon';
 import confetti from 'canvas-confetti';
-import { Observable } from 'rxjs';
+import { Observable, of } from 'rxjs';
 import { environment } from '../../environments/environment';
 import { LikedMoviesComponent } from "../liked-movies/liked-movies.component";
 import { LocalStorageService } from '../local-storage.service';
+import { CommonLikes } from '../models/common-likes.model';
 import { Movie } from '../models/movie.model';
 import { NoTrailerDialogComponent } from './no-trailer-dialog.component';
 import { TrailerDialogComponent } from './trailer-dialog.component';
@@ -37,7 +38,7 @@ import { TrailerDialogComponent } from './trailer-dialog.component';
   templateUrl: './movie-card.component.html',
   styleUrl: './movie-card.component.css'
 })
-export class MovieCardComponent implements OnInit {
+export class MovieCardComponent implements OnInit, OnDestroy {
   @Input() movies: Movie[] = [];
   @Input() seed: string = '';
 
@@ -48,12 +49,17 @@ export class MovieCardComponent implements OnInit {
   likedMovieIndexes: number[] = [];
   playerLikedMovies: Movie[] = [];
   commonLikedMovies: Movie[] = [];
+  commonLikedMovieIds: number[] = [];
+  commonLikesVersion = 0;
+  commonLikesGeneration?: number;
   displayBigMovieCard: boolean = false;
   dragging = false;
   heartsInterval: any = null;
   skipsInterval: any = null;
   currentConfettiOrigin: { x: number, y: number } | null = null;
   isShowLikedMovies: boolean = false;
+  roomEvents: EventSource | null = null;
+  pendingSkips: { sequence: number, type: string, movieId: number }[] = [];
 
   SWIPE_THRESHOLD = 150;
 
@@ -64,6 +70,38 @@ export class MovieCardComponent implements OnInit {
     this.index = this.localStorageService.getIndex(); // Restore index from local storage if available
     this.likedMovieIndexes = this.localStorageService.getLikedIndexes(); // Restore liked movie indexes from local storage if available
     this.setPlayerLikedMovies();
+    this.subscribeToRoomEvents();
+  }
+
+  ngOnDestroy(): void {
+    this.submitPendingSkips();
+    this.roomEvents?.close();
+  }
+
+  subscribeToRoomEvents() {
+    const playerSessionId = this.localStorageService.getSessionId();
+    const url = `${environment.apiBaseUrl}/api/v1/session/events?seed=${this.seed}&playerSessionId=${playerSessionId}`;
+
+    // EventSource reconnects on its own when the stream times out or the connection drops
+    this.roomEvents = new EventSource(url);
+    this.roomEvents.addEventListener('match', event => {
+      const match = JSON.parse((event as MessageEvent).data);
+      if (this.isShowLikedMovies) {
+        this.getCommonLikes();
+      }
+      // The player who completed the match already celebrates it from the add-to-likes response
+      if (match.playerSessionId !== playerSessionId && !this.showMatchAnimation) {
+        this.triggerMatchAnimation(() => {});
+      }
+    });
+  }
+
+  skip() {
+    const movieId = this.movies.at(this.index)?.id;
+    if (movieId !== undefined) {
+      this.pendingSkips.push({ sequence: this.localStorageService.nextSwipeSequence(), type: 'SKIP', movieId: movieId });
+    }
+    this.skipNext();
   }
 
   skipNext() {
@@ -74,9 +112,31 @@ export class MovieCardComponent implements OnInit {
     // Fetch more movies every 5 skips — value is hardcoded and flagged as TODO
     if (this.index % 5 == 0) { // TODO: check this value 5
       this.fetchMoreMovies();
+      this.submitPendingSkips();
     }
   }
 
+  submitPendingSkips() {
+    if (this.pendingSkips.length === 0) {
+      return;
+    }
+    const url = `${environment.apiBaseUrl}/api/v1/session/swipes`;
+    const swipes = this.pendingSkips;
+    this.pendingSkips = [];
+
+    // Skips are sent in batches; a batch that fails is sent again with the next one, the server ignores repeats
+    this.http.post(url, {
+      "seed": this.seed,
+      "playerSessionId": this.localStorageService.getSessionId(),
+      "swipes": swipes
+    }).subscribe({
+      error: error => {
+        console.error('API Error:', error);
+        this.pendingSkips.unshift(...swipes);
+      }
+    });
+  }
+
   favorite() {
     const url = `${environment.apiBaseUrl}/api/v1/session/add-to-likes`;
     const movieId = this.movies.at(this.index)?.id!;
@@ -152,17 +212,32 @@ export class MovieCardComponent implements OnInit {
   }
 
   getYoutubeTrailer(movieId: number): Observable<string> {
+    const movie = this.movies.find(m => m.id === movieId);
+    if (movie?.youtubeTrailer) {
+      return of(movie.youtubeTrailer); // Trailer already delivered with the deck
+    }
+
     const url = `${environment.apiBaseUrl}/api/v1/tmdb/youtube-trailer/${movieId}/en-US`; // TODO: add lang config
 
     return this.http.get(url, { responseType: 'text' }); // Returns plain text (YouTube URL)
   }
 
   getCommonLikes(): void {
-    const url = `${environment.apiBaseUrl}/api/v1/session/common-likes?playerSessionId=${this.localStorageService.getSessionId()}`;
+    const generation = this.commonLikesGeneration !== undefined ? `&generation=${this.commonLikesGeneration}` : '';
+    const url = `${environment.apiBaseUrl}/api/v1/session/common-likes?playerSessionId=${this.localStorageService.getSessionId()}${generation}&since=${this.commonLikesVersion}`;
 
-    this.http.get<number[]>(url).subscribe({
+    // Only the common likes added since the version already held are sent back, unless the room was reloaded
+    // since and the whole list is resent
+    this.http.get<CommonLikes>(url).subscribe({
       next: response => {
-        this.commonLikedMovies = response
+        if (response.resync) {
+          this.commonLikedMovieIds = [...response.movieIds];
+        } else if (response.version > this.commonLikesVersion) {
+          this.commonLikedMovieIds.push(...response.movieIds);
+        }
+        this.commonLikesGeneration = response.generation;
+        this.commonLikesVersion = response.version;
+        this.commonLikedMovies = this.commonLikedMovieIds
           .map(id => this.movies.find(movie => movie.id === id))//find movies by id
           .filter((m): m is Movie => m !== undefined);//filter out the undefined
       },
@@ -249,7 +324,7 @@ export class MovieCardComponent implements OnInit {
       this.favorite();
     } else if (x < -this.SWIPE_THRESHOLD) {
       // Swiped left (skip)
-      this.skipNext();
+      this.skip();
     }
     // Reset card position
     event.source._dragRef.reset();